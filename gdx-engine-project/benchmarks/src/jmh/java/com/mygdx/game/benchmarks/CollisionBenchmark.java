@@ -0,0 +1,56 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.BroadPhaseMode;
+import com.mygdx.game.CollisionManager;
+import com.mygdx.game.EntityManager;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** CollisionManager.detectCollisions on a static scene; pass -p broadPhase=BRUTE_FORCE for the reference path. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param({"100", "1000", "10000", "50000"})
+    public int colliders;
+
+    @Param({"uniform", "clustered"})
+    public String layout;
+
+    @Param({"SPATIAL_HASH"})
+    public String broadPhase;
+
+    @Param({"false", "true"})
+    public boolean parallelNarrowPhase;
+
+    private CollisionManager collisionManager;
+
+    @Setup
+    public void setUp() {
+        collisionManager = new CollisionManager();
+        collisionManager.setBroadPhaseMode(BroadPhaseMode.valueOf(broadPhase));
+        collisionManager.setParallelNarrowPhase(parallelNarrowPhase);
+        Scenes.addColliders(new EntityManager(), collisionManager, colliders, "clustered".equals(layout), 42L);
+        // First pass fills the contact cache so measurements see the steady state
+        collisionManager.detectCollisions();
+    }
+
+    @Benchmark
+    public int detectCollisions() {
+        collisionManager.detectCollisions();
+        return collisionManager.getContactCount();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.CollisionComponent;
+import com.mygdx.game.Entity;
+import com.mygdx.game.EntityManager;
+import com.mygdx.game.PhysicsComponent;
+import com.mygdx.game.Prefab;
+import com.mygdx.game.TransformComponent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** One burst of spawns and the matching despawns, each committed by an EntityManager update. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityChurnBenchmark {
+    @Param({"100", "5000"})
+    public int burst;
+
+    @Param({"10000"})
+    public int resident;
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    @Param({"false", "true"})
+    public boolean stableOrder;
+
+    private EntityManager entityManager;
+    private Prefab bullet;
+    private Entity[] spawned;
+
+    @Setup
+    public void setUp() {
+        entityManager = new EntityManager();
+        entityManager.setStableOrder(stableOrder);
+        bullet = new Prefab("bullet")
+            .with(new TransformComponent(0, 0, 4, 4))
+            .with(new PhysicsComponent(0, 300, 1))
+            .with(new CollisionComponent(2, false));
+        entityManager.registerPrefab(bullet, pooled ? burst : 0, pooled ? burst : 0);
+        entityManager.query(TransformComponent.class, PhysicsComponent.class);
+        Scenes.addMovers(entityManager, resident, 3L);
+        spawned = new Entity[burst];
+    }
+
+    @Benchmark
+    public int spawnAndDespawn() {
+        for (int i = 0; i < burst; i++) {
+            spawned[i] = entityManager.spawn(bullet);
+        }
+        entityManager.update(0);
+
+        for (int i = 0; i < burst; i++) {
+            entityManager.despawn(spawned[i]);
+        }
+        entityManager.update(0);
+        return entityManager.getEntityCount();
+    }
+}
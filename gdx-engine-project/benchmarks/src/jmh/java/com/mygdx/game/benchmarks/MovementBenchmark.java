@@ -0,0 +1,84 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.BasicMovementStrategy;
+import com.mygdx.game.DragMovementStrategy;
+import com.mygdx.game.EntityManager;
+import com.mygdx.game.GravityMovementStrategy;
+import com.mygdx.game.MovementManager;
+import com.mygdx.game.MovementStrategy;
+import com.mygdx.game.PhysicsComponent;
+import com.mygdx.game.TransformComponent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MovementManager.updateMovement with gravity, drag and integration registered. "batch" runs
+ * them as one fused pass over the arrays; "perEntity" hides the batch interface so every
+ * entity takes one interface call per strategy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovementBenchmark {
+    private static final float DELTA_TIME = 1f / 60f;
+
+    @Param({"1000", "100000"})
+    public int entities;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"batch", "perEntity"})
+    public String pipeline;
+
+    private MovementManager movementManager;
+
+    @Setup
+    public void setUp() {
+        EntityManager entityManager = new EntityManager(packed);
+        movementManager = new MovementManager(entityManager);
+        MovementStrategy[] strategies = {
+            new GravityMovementStrategy(0, -98f), new DragMovementStrategy(0.1f), new BasicMovementStrategy()
+        };
+        for (MovementStrategy strategy : strategies) {
+            movementManager.addMovementStrategy("batch".equals(pipeline) ? strategy : perEntity(strategy));
+        }
+        movementManager.setParallel(parallel);
+        Scenes.addMovers(entityManager, entities, 7L);
+    }
+
+    private static MovementStrategy perEntity(final MovementStrategy strategy) {
+        return new MovementStrategy() {
+            @Override
+            public void applyMovement(TransformComponent transform, PhysicsComponent physics, float deltaTime) {
+                strategy.applyMovement(transform, physics, deltaTime);
+            }
+
+            @Override
+            public boolean isParallelSafe() {
+                return strategy.isParallelSafe();
+            }
+        };
+    }
+
+    @Benchmark
+    public void updateMovement() {
+        movementManager.updateMovement(DELTA_TIME);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.CollisionComponent;
+import com.mygdx.game.CollisionManager;
+import com.mygdx.game.Entity;
+import com.mygdx.game.EntityManager;
+import com.mygdx.game.PhysicsComponent;
+import com.mygdx.game.TransformComponent;
+import java.util.Random;
+
+/** Deterministic scene builders shared by the benchmarks. */
+final class Scenes {
+    // World edge grows with sqrt(count) so the average collider density stays constant
+    static final float SPACING = 40f;
+    private static final int CLUSTERS = 16;
+
+    private Scenes() { }
+
+    static float worldSize(int count) {
+        return (float) Math.sqrt(count) * SPACING;
+    }
+
+    static void addColliders(EntityManager entityManager, CollisionManager collisionManager,
+                             int count, boolean clustered, long seed) {
+        Random random = new Random(seed);
+        float world = worldSize(count);
+        float[] centers = new float[CLUSTERS * 2];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = random.nextFloat() * world;
+        }
+
+        for (int i = 0; i < count; i++) {
+            float x;
+            float y;
+            if (clustered) {
+                int cluster = random.nextInt(CLUSTERS);
+                x = centers[cluster * 2] + (float) random.nextGaussian() * world / 40f;
+                y = centers[cluster * 2 + 1] + (float) random.nextGaussian() * world / 40f;
+            } else {
+                x = random.nextFloat() * world;
+                y = random.nextFloat() * world;
+            }
+
+            Entity entity = new Entity();
+            entity.addComponent(new TransformComponent(x, y, 8 + random.nextFloat() * 16, 8 + random.nextFloat() * 16));
+            entity.addComponent(new PhysicsComponent(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, 1));
+            entity.addComponent(new CollisionComponent(1 + random.nextInt(3), false));
+            entityManager.addEntity(entity);
+            collisionManager.addCollisionComponent(entity.getComponent(CollisionComponent.class));
+        }
+        entityManager.update(0);
+    }
+
+    static void addMovers(EntityManager entityManager, int count, long seed) {
+        Random random = new Random(seed);
+        float world = worldSize(count);
+        for (int i = 0; i < count; i++) {
+            Entity entity = new Entity();
+            entity.addComponent(new TransformComponent(random.nextFloat() * world, random.nextFloat() * world, 16, 16));
+            entity.addComponent(new PhysicsComponent(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50, 1));
+            entityManager.addEntity(entity);
+        }
+        entityManager.update(0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.CollisionManager;
+import com.mygdx.game.Entity;
+import com.mygdx.game.EntityManager;
+import com.mygdx.game.TransformComponent;
+import com.mygdx.game.WorldSnapshot;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and loading a world of colliders as a full snapshot, and as the base plus a
+ * delta where one entity in a hundred moved. Setup round-trips both and fails the run
+ * if the restored world differs from the saved one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+    @Param({"100000"})
+    public int entities;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    private EntityManager entityManager;
+    private WorldSnapshot base;
+    private Path basePath;
+    private Path deltaPath;
+    private Path scratchPath;
+
+    @Setup
+    public void setUp() throws IOException {
+        entityManager = new EntityManager(packed);
+        Scenes.addColliders(entityManager, new CollisionManager(), entities, false, 5L);
+        basePath = Files.createTempFile("world", ".snapshot");
+        deltaPath = Files.createTempFile("world", ".delta");
+        scratchPath = Files.createTempFile("world", ".scratch");
+
+        base = WorldSnapshot.capture(entityManager);
+        base.write(basePath);
+        checkRoundTrip(WorldSnapshot.read(basePath), base);
+
+        List<Entity> all = entityManager.getEntities();
+        for (int i = 0; i < all.size(); i += 100) {
+            all.get(i).getComponent(TransformComponent.class).translate(1, 1);
+        }
+        base.writeDelta(entityManager, deltaPath);
+        checkRoundTrip(WorldSnapshot.read(basePath).applyDelta(deltaPath), WorldSnapshot.capture(entityManager));
+    }
+
+    private void checkRoundTrip(WorldSnapshot loaded, WorldSnapshot expected) {
+        EntityManager restored = new EntityManager(packed);
+        loaded.restore(restored, null);
+        if (!WorldSnapshot.capture(restored).sameState(expected)) {
+            throw new IllegalStateException("Snapshot round trip changed the world state");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(basePath);
+        Files.deleteIfExists(deltaPath);
+        Files.deleteIfExists(scratchPath);
+    }
+
+    @Benchmark
+    public int saveFull() throws IOException {
+        WorldSnapshot snapshot = WorldSnapshot.capture(entityManager);
+        snapshot.write(scratchPath);
+        return snapshot.size();
+    }
+
+    @Benchmark
+    public int saveDelta() throws IOException {
+        return base.writeDelta(entityManager, scratchPath);
+    }
+
+    // Mapping the file and copying out the columns, without building entities
+    @Benchmark
+    public int readFull() throws IOException {
+        return WorldSnapshot.read(basePath).size();
+    }
+
+    @Benchmark
+    public int loadFull() throws IOException {
+        EntityManager restored = new EntityManager(packed);
+        WorldSnapshot.read(basePath).restore(restored, null);
+        return restored.getEntityCount();
+    }
+
+    @Benchmark
+    public int loadWithDelta() throws IOException {
+        EntityManager restored = new EntityManager(packed);
+        WorldSnapshot.read(basePath).applyDelta(deltaPath).restore(restored, null);
+        return restored.getEntityCount();
+    }
+}
@@ -0,0 +1,138 @@
+package com.mygdx.game;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Reads the JVM's per-thread allocated-bytes counter and listens for GC pauses. The
+ * counter comes from com.sun.management.ThreadMXBean, which HotSpot-based JVMs provide.
+ * Elsewhere isSupported() is false and every reading is 0. A reading only covers the
+ * calling thread. Work handed to a ForkJoinPool is not included, so measure serial
+ * configurations when the numbers need to be exact.
+ */
+public class AllocationTracker {
+    private final com.sun.management.ThreadMXBean threads;
+    // Bytes the counter read itself costs, subtracted from every measurement
+    private final long readOverhead;
+
+    private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+    private final AtomicLong gcPauses = new AtomicLong();
+    private final AtomicLong gcPauseMillis = new AtomicLong();
+    private final AtomicLong maxGcPauseMillis = new AtomicLong();
+    private final NotificationListener gcListener = new NotificationListener() {
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+            GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            // Concurrent collectors also report whole cycles; only count stop-the-world pauses
+            String name = info.getGcName();
+            if (name.contains("Cycles") || name.contains("Concurrent")) return;
+
+            long duration = info.getGcInfo().getDuration();
+            gcPauses.incrementAndGet();
+            gcPauseMillis.addAndGet(duration);
+            long max;
+            while (duration > (max = maxGcPauseMillis.get()) && !maxGcPauseMillis.compareAndSet(max, duration)) { }
+        }
+    };
+
+    public AllocationTracker() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean sunBean = null;
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && !sunBean.isThreadAllocatedMemoryEnabled()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            if (!sunBean.isThreadAllocatedMemorySupported()) {
+                sunBean = null;
+            }
+        }
+        threads = sunBean;
+        readOverhead = calibrate();
+    }
+
+    private long calibrate() {
+        if (threads == null) return 0;
+        // Let the JIT settle the read path, then keep the smallest back-to-back difference
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10000; i++) {
+            long start = readRaw();
+            long end = readRaw();
+            overhead = Math.min(overhead, end - start);
+        }
+        return Math.max(0, overhead);
+    }
+
+    private long readRaw() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public boolean isSupported() {
+        return threads != null;
+    }
+
+    // Running total for the calling thread; only differences between two readings mean anything
+    public long getAllocatedBytes() {
+        return threads == null ? 0 : readRaw();
+    }
+
+    // Bytes allocated on this thread since a getAllocatedBytes() reading
+    public long allocatedSince(long startBytes) {
+        if (threads == null) return 0;
+        return Math.max(0, readRaw() - startBytes - readOverhead);
+    }
+
+    // --- GC pauses ---
+
+    public void startGcMonitoring() {
+        if (!gcEmitters.isEmpty()) return;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(gcListener, null, null);
+                gcEmitters.add(emitter);
+            }
+        }
+    }
+
+    public void stopGcMonitoring() {
+        for (NotificationEmitter emitter : gcEmitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (ListenerNotFoundException e) {
+                // Already gone, nothing to undo
+            }
+        }
+        gcEmitters.clear();
+    }
+
+    public long getGcPauses() {
+        return gcPauses.get();
+    }
+
+    public long getGcPauseMillis() {
+        return gcPauseMillis.get();
+    }
+
+    public long getMaxGcPauseMillis() {
+        return maxGcPauseMillis.get();
+    }
+
+    public void resetGcCounters() {
+        gcPauses.set(0);
+        gcPauseMillis.set(0);
+        maxGcPauseMillis.set(0);
+    }
+}
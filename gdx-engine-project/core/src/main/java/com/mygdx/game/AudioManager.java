@@ -10,6 +10,8 @@ public class AudioManager {
     private Map<String, Sound> sounds = new HashMap<>();
 
     public void loadSound(String id, String path) {
+        // No audio backend (headless or muted launch), so sounds are simply never played
+        if (Gdx.audio == null) return;
         sounds.put(id, Gdx.audio.newSound(Gdx.files.internal(path)));
     }
 
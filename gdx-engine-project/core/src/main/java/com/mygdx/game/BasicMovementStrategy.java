@@ -1,9 +1,25 @@
 package com.mygdx.game;
 
-public class BasicMovementStrategy implements MovementStrategy {
+public class BasicMovementStrategy implements MovementStrategy, BatchMovementStrategy {
     @Override
     public void applyMovement(TransformComponent transform, PhysicsComponent physics, float deltaTime) {
-        transform.positionX += physics.velocityX * deltaTime;
-        transform.positionY += physics.velocityY * deltaTime;
+        transform.translate(physics.getVelocityX() * deltaTime, physics.getVelocityY() * deltaTime);
+    }
+
+    @Override
+    public void applyMovement(MovementBatch batch, int from, int to, float deltaTime) {
+        float[] positionX = batch.positionX;
+        float[] positionY = batch.positionY;
+        float[] velocityX = batch.velocityX;
+        float[] velocityY = batch.velocityY;
+        for (int i = from; i < to; i++) {
+            positionX[i] += velocityX[i] * deltaTime;
+            positionY[i] += velocityY[i] * deltaTime;
+        }
+    }
+
+    @Override
+    public boolean isParallelSafe() {
+        return true;
     }
 }
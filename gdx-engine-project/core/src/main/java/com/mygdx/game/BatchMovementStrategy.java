@@ -0,0 +1,16 @@
+package com.mygdx.game;
+
+/**
+ * Movement over a range of entities at once, reading and writing MovementBatch's primitive
+ * arrays. MovementManager runs every registered batch strategy over the same block of
+ * entities before moving on to the next block, so a strategy must treat each entity on
+ * its own and never read another entity's state.
+ */
+public interface BatchMovementStrategy {
+    void applyMovement(MovementBatch batch, int from, int to, float deltaTime);
+
+    // True if the strategy keeps no shared state, so blocks can run concurrently
+    default boolean isParallelSafe() {
+        return false;
+    }
+}
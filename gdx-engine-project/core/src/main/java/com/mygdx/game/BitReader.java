@@ -0,0 +1,45 @@
+package com.mygdx.game;
+
+import java.nio.ByteBuffer;
+
+/** Reads values written by BitWriter from a buffer, starting at its position. */
+class BitReader {
+    private ByteBuffer buffer;
+    private int start;
+    private int limitBits;
+    private int bitPosition;
+
+    void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.start = buffer.position();
+        this.limitBits = buffer.remaining() * 8;
+        this.bitPosition = 0;
+    }
+
+    int read(int bits) {
+        if (bitPosition + bits > limitBits) {
+            throw new IllegalStateException("Replication frame is truncated");
+        }
+        int value = 0;
+        for (int i = 0; i < bits; i++) {
+            int b = buffer.get(start + (bitPosition >>> 3));
+            value = (value << 1) | ((b >>> (7 - (bitPosition & 7))) & 1);
+            bitPosition++;
+        }
+        return value;
+    }
+
+    boolean readBit() {
+        return read(1) != 0;
+    }
+
+    int readVarBits() {
+        int bits = read(6);
+        return bits == 0 ? 0 : read(bits);
+    }
+
+    int readSigned() {
+        int value = readVarBits();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.mygdx.game;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** Appends values of any width up to 32 bits to a growable byte array, most significant bit first. */
+class BitWriter {
+    private byte[] bytes = new byte[1024];
+    private ByteBuffer view = ByteBuffer.wrap(bytes);
+    private int bitLength;
+
+    void clear() {
+        bitLength = 0;
+    }
+
+    void write(int value, int bits) {
+        ensureCapacity(bitLength + bits);
+        for (int i = bits - 1; i >= 0; i--) {
+            if (((value >>> i) & 1) != 0) {
+                bytes[bitLength >>> 3] |= (byte) (0x80 >>> (bitLength & 7));
+            }
+            bitLength++;
+        }
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    // Six bits of length, then the significant bits of the value
+    void writeVarBits(int value) {
+        int bits = 32 - Integer.numberOfLeadingZeros(value);
+        write(bits, 6);
+        if (bits > 0) write(value, bits);
+    }
+
+    void writeSigned(int value) {
+        writeVarBits((value << 1) ^ (value >> 31));
+    }
+
+    int byteLength() {
+        return (bitLength + 7) >>> 3;
+    }
+
+    // The written bytes, positioned at zero; the view is reused, valid until the next clear()
+    ByteBuffer toBuffer() {
+        view.limit(byteLength());
+        view.position(0);
+        return view;
+    }
+
+    private void ensureCapacity(int bits) {
+        int needed = (bits + 7) >>> 3;
+        if (needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+            view = ByteBuffer.wrap(bytes);
+        }
+        // Bytes are OR-ed into, so anything past the old end must start at zero
+        int from = byteLength();
+        if (from < needed) Arrays.fill(bytes, from, needed, (byte) 0);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mygdx.game;
+
+/** How CollisionManager finds candidate pairs before the overlap test. */
+public enum BroadPhaseMode {
+    // Test every pair, kept as the reference path for verification
+    BRUTE_FORCE,
+    // Bucket colliders into a uniform grid and only test pairs sharing a cell
+    SPATIAL_HASH
+}
@@ -0,0 +1,126 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes frames to a channel without blocking the tick, each prefixed with its length
+ * as a little-endian int. Frames are queued in a buffer and flushed as far as the
+ * channel accepts on each send. The buffer only grows to hold a single frame larger than
+ * itself. A frame that doesn't fit behind the backlog is dropped, and so is every delta
+ * after it until a keyframe fits, since the observer can't apply deltas past a gap.
+ * A failed write closes the sink; isOpen() reports it.
+ */
+public class ChannelReplicationSink implements ReplicationSink {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private ByteBuffer pending;
+    private boolean resyncing = true;
+    private boolean open = true;
+    private IOException failure;
+    private long framesSent;
+    private long framesDropped;
+    private long bytesWritten;
+
+    public ChannelReplicationSink(WritableByteChannel channel) throws IOException {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelReplicationSink(WritableByteChannel channel, int bufferSize) throws IOException {
+        if (channel instanceof SelectableChannel) {
+            ((SelectableChannel) channel).configureBlocking(false);
+        }
+        this.channel = channel;
+        this.pending = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void send(ByteBuffer frame, boolean keyframe) {
+        if (!open) return;
+        if (resyncing && !keyframe) {
+            framesDropped++;
+            return;
+        }
+        if (frame.remaining() + 4 > pending.capacity()) {
+            // A frame the queue could never hold would stall the observer for good
+            grow(frame.remaining() + 4);
+        }
+        if (pending.remaining() < frame.remaining() + 4) {
+            // The observer is too far behind; skip to the next keyframe that fits
+            flush();
+            if (pending.remaining() < frame.remaining() + 4) {
+                framesDropped++;
+                resyncing = true;
+                return;
+            }
+        }
+        int start = frame.position();
+        pending.putInt(frame.remaining());
+        pending.put(frame);
+        frame.position(start);
+        resyncing = false;
+        framesSent++;
+        flush();
+    }
+
+    private void grow(int needed) {
+        ByteBuffer larger = ByteBuffer.allocateDirect(Integer.highestOneBit(needed - 1) << 1)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        pending.flip();
+        larger.put(pending);
+        pending = larger;
+    }
+
+    // Writes as much of the queue as the channel takes right now
+    public void flush() {
+        if (!open || pending.position() == 0) return;
+        pending.flip();
+        try {
+            bytesWritten += channel.write(pending);
+        } catch (IOException e) {
+            failure = e;
+            close();
+        } finally {
+            pending.compact();
+        }
+    }
+
+    @Override
+    public boolean needsKeyframe() {
+        return open && resyncing;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    // The write error that closed the sink, or null
+    public IOException getFailure() {
+        return failure;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void close() {
+        open = false;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure == null) failure = e;
+        }
+    }
+}
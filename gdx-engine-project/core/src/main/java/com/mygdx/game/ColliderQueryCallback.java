@@ -0,0 +1,6 @@
+package com.mygdx.game;
+
+public interface ColliderQueryCallback {
+    // Return false to stop the query early
+    boolean onCollider(CollisionComponent collider);
+}
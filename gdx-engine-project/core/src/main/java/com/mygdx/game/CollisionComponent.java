@@ -3,35 +3,153 @@ package com.mygdx.game;
 public class CollisionComponent extends Component {
     private int collisionLayer;
     private boolean trigger;
+    // Swept against other colliders between the previous and current position, for fast movers
+    private boolean continuous;
     private Vector2 boundsOffset;
     private TransformComponent transform;
+    private PhysicsComponent physics;
+
+    // Reused bounds, recomputed only when the transform or offset differs from the snapshot
+    private final Rectangle bounds = new Rectangle(0, 0, 0, 0);
+    private boolean boundsDirty = true;
+    private float lastPositionX;
+    private float lastPositionY;
+    private float lastWidth;
+    private float lastHeight;
+    private float lastOffsetX;
+    private float lastOffsetY;
+
+    // Leaf in CollisionManager's AABB tree, -1 while not inserted
+    int proxyId = -1;
+    // Stable id assigned by CollisionManager, used to key persistent contacts
+    int colliderId = -1;
+    // Position in CollisionManager's collider list, so removal can swap in the last one
+    int listIndex = -1;
+    // Manager this collider is registered with, and the one to rejoin when a pooled entity respawns
+    CollisionManager manager;
+    CollisionManager pooledManager;
 
     public CollisionComponent(int collisionLayer, boolean trigger) {
+        CollisionMatrix.checkLayer(collisionLayer);
         this.collisionLayer = collisionLayer;
         this.trigger = trigger;
         this.boundsOffset = new Vector2(0, 0);
     }
 
+    @Override
+    public void onAttach(Entity entity) {
+        super.onAttach(entity);
+        transform = null;
+        physics = null;
+        resolveTransform();
+    }
+
+    @Override
+    public void onDetach() {
+        super.onDetach();
+        transform = null;
+        physics = null;
+        boundsDirty = true;
+    }
+
+    // The returned rectangle is owned by this component and updated in place; copy it to keep it
     public Rectangle getBounds() {
+        TransformComponent t = resolveTransform();
+        if (t == null) return null;
+
+        if (boundsDirty
+                || t.getPositionX() != lastPositionX || t.getPositionY() != lastPositionY
+                || t.getWidth() != lastWidth || t.getHeight() != lastHeight
+                || boundsOffset.x != lastOffsetX || boundsOffset.y != lastOffsetY) {
+            lastPositionX = t.getPositionX();
+            lastPositionY = t.getPositionY();
+            lastWidth = t.getWidth();
+            lastHeight = t.getHeight();
+            lastOffsetX = boundsOffset.x;
+            lastOffsetY = boundsOffset.y;
+
+            bounds.x = lastPositionX + lastOffsetX;
+            bounds.y = lastPositionY + lastOffsetY;
+            bounds.width = lastWidth;
+            bounds.height = lastHeight;
+            boundsDirty = false;
+        }
+        return bounds;
+    }
+
+    TransformComponent getTransform() {
+        return resolveTransform();
+    }
+
+    /**
+     * True while the owner's body is asleep. Pairs of static colliders are not tested,
+     * so a sleeping body moved through its transform should be woken first. Colliders
+     * without a PhysicsComponent may be moved by game code and are never static.
+     */
+    boolean isStatic() {
+        PhysicsComponent p = resolvePhysics();
+        return p != null && p.isSleeping();
+    }
+
+    void wake() {
+        PhysicsComponent p = resolvePhysics();
+        if (p != null) p.wake();
+    }
+
+    private PhysicsComponent resolvePhysics() {
         if (owner == null) return null;
-        
-        Component comp = owner.getComponent(TransformComponent.class);
-        if (comp == null || !(comp instanceof TransformComponent)) return null;
-        
-        transform = (TransformComponent) comp;
-        return new Rectangle(
-            transform.positionX + boundsOffset.x,
-            transform.positionY + boundsOffset.y,
-            transform.width,
-            transform.height
-        );
+        if (physics != null && physics.owner == owner) return physics;
+
+        physics = owner.getComponent(PhysicsComponent.class);
+        return physics;
+    }
+
+    // Cached at attach time; looked up again only if the transform was added later or replaced
+    private TransformComponent resolveTransform() {
+        if (owner == null) return null;
+        if (transform != null && transform.owner == owner) return transform;
+
+        transform = owner.getComponent(TransformComponent.class);
+        boundsDirty = true;
+        return transform;
     }
 
     public void onCollisionEnter(CollisionComponent other) {
         // Added a collision event
     }
 
+    public void onCollisionStay(CollisionComponent other) {
+        // Called every following frame the two colliders keep overlapping
+    }
+
+    /**
+     * Called instead of onCollisionEnter(other) when a continuous collider's sweep found the
+     * contact. timeOfImpact is the fraction of the tick at first touch and the normal is the
+     * other collider's surface normal there, pointing towards this one. The contact may no
+     * longer overlap at the end of the tick, in which case exit follows on the next one.
+     */
+    public void onCollisionEnter(CollisionComponent other, float timeOfImpact, float normalX, float normalY) {
+        onCollisionEnter(other);
+    }
+
+    public void onCollisionExit(CollisionComponent other) {
+        // Called once when the colliders stop overlapping or one is removed
+    }
+
+    public void onTriggerEnter(CollisionComponent other) {
+        // Same as the collision events, used when either collider is a trigger
+    }
+
+    public void onTriggerEnter(CollisionComponent other, float timeOfImpact, float normalX, float normalY) {
+        onTriggerEnter(other);
+    }
+
+    public void onTriggerStay(CollisionComponent other) { }
+
+    public void onTriggerExit(CollisionComponent other) { }
+
     public void setCollisionLayer(int layer) {
+        CollisionMatrix.checkLayer(layer);
         this.collisionLayer = layer;
     }
 
@@ -43,7 +161,7 @@ public class CollisionComponent extends Component {
         if (other == null) return false;
         if (!this.isEnabled() || !other.isEnabled()) return false;
         
-        // Added collision layer to check    
+        // Layer 0 never collides; layer-vs-layer rules live in CollisionManager's CollisionMatrix
         return this.collisionLayer != 0 && other.collisionLayer != 0;
     }
 
@@ -55,14 +173,43 @@ public class CollisionComponent extends Component {
         this.trigger = trigger;
     }
 
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+    }
+
     public Vector2 getBoundsOffset() {
         return boundsOffset;
     }
 
     public void setBoundsOffset(Vector2 offset) {
         this.boundsOffset = offset;
+        this.boundsDirty = true;
     }
     
+    @Override
+    public CollisionComponent copy() {
+        CollisionComponent copy = new CollisionComponent(collisionLayer, trigger);
+        copy.boundsOffset.set(boundsOffset.x, boundsOffset.y);
+        copy.continuous = continuous;
+        copy.enabled = enabled;
+        return copy;
+    }
+
+    @Override
+    public void set(Component template) {
+        super.set(template);
+        CollisionComponent other = (CollisionComponent) template;
+        collisionLayer = other.collisionLayer;
+        trigger = other.trigger;
+        continuous = other.continuous;
+        boundsOffset.set(other.boundsOffset.x, other.boundsOffset.y);
+        boundsDirty = true;
+    }
+
     @Override
     public void update(float deltaTime) {
         // Collision update handled by CollisionManager
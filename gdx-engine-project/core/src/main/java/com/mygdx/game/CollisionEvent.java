@@ -0,0 +1,106 @@
+package com.mygdx.game;
+
+/**
+ * A contact change published by CollisionManager, one per pair. The handles are taken
+ * when the event is published; check them with EntityManager.isAlive() before acting on
+ * an entity that may have been removed or recycled since.
+ */
+public class CollisionEvent implements Event {
+    public enum Kind {
+        ENTER,
+        STAY,
+        EXIT
+    }
+
+    private Kind kind;
+    private boolean trigger;
+    private CollisionComponent first;
+    private CollisionComponent second;
+    private Entity firstEntity;
+    private Entity secondEntity;
+    private int firstHandle = -1;
+    private int secondHandle = -1;
+    // Only for entries found by a continuous sweep; the normal is the one first sees
+    private boolean swept;
+    private float timeOfImpact;
+    private float normalX;
+    private float normalY;
+
+    void set(Kind kind, CollisionComponent first, CollisionComponent second) {
+        this.kind = kind;
+        this.trigger = first.isTrigger() || second.isTrigger();
+        this.first = first;
+        this.second = second;
+        this.firstEntity = first.owner;
+        this.secondEntity = second.owner;
+        this.firstHandle = firstEntity != null ? firstEntity.getId() : -1;
+        this.secondHandle = secondEntity != null ? secondEntity.getId() : -1;
+        this.swept = false;
+        this.timeOfImpact = 0;
+        this.normalX = 0;
+        this.normalY = 0;
+    }
+
+    void setSweep(float timeOfImpact, float normalX, float normalY) {
+        this.swept = true;
+        this.timeOfImpact = timeOfImpact;
+        this.normalX = normalX;
+        this.normalY = normalY;
+    }
+
+    @Override
+    public void reset() {
+        first = null;
+        second = null;
+        firstEntity = null;
+        secondEntity = null;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isTrigger() {
+        return trigger;
+    }
+
+    public CollisionComponent getFirst() {
+        return first;
+    }
+
+    public CollisionComponent getSecond() {
+        return second;
+    }
+
+    public Entity getFirstEntity() {
+        return firstEntity;
+    }
+
+    public Entity getSecondEntity() {
+        return secondEntity;
+    }
+
+    public int getFirstHandle() {
+        return firstHandle;
+    }
+
+    public int getSecondHandle() {
+        return secondHandle;
+    }
+
+    public boolean isSwept() {
+        return swept;
+    }
+
+    public float getTimeOfImpact() {
+        return timeOfImpact;
+    }
+
+    public float getNormalX() {
+        return normalX;
+    }
+
+    public float getNormalY() {
+        return normalY;
+    }
+}
@@ -1,13 +1,107 @@
 package com.mygdx.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public class CollisionManager implements IManager {
+    private static final float DEFAULT_CELL_SIZE = 64f;
+    private static final float DEFAULT_TREE_MARGIN = 8f;
+    private static final int DEFAULT_NARROW_PHASE_CHUNK = 2048;
+    private static final int DEFAULT_NARROW_PHASE_THRESHOLD = 8192;
+    // A displacement is swept only if it's within this multiple of velocity * delta, which
+    // leaves room for strategies that changed the velocity during the step; anything beyond
+    // it is taken to be a teleport
+    private static final float SWEEP_VELOCITY_SLACK = 2f;
+    // Absolute allowance on top, so float rounding on slow bodies doesn't disable the sweep
+    private static final float SWEEP_MOTION_TOLERANCE = 0.01f;
+    // Physics is read for sleep state and swept motion, and written when a contact wakes a body
+    private static final Set<Class<? extends Component>> READS = Collections.unmodifiableSet(
+        new HashSet<Class<? extends Component>>(Arrays.asList(TransformComponent.class, PhysicsComponent.class)));
+    private static final Set<Class<? extends Component>> WRITES = Collections.unmodifiableSet(
+        new HashSet<Class<? extends Component>>(Arrays.asList(CollisionComponent.class, PhysicsComponent.class)));
+
     private List<CollisionComponent> collisionComponents;
+    private BroadPhaseMode broadPhaseMode;
+    private SpatialHashGrid spatialHash;
+    private DynamicAABBTree queryTree;
+    private CollisionMatrix collisionMatrix;
+
+    // Collider list indices grouped by layer, rebuilt each frame with a counting sort
+    private int[] layerBuckets = new int[64];
+    private int[] layerStart = new int[CollisionMatrix.MAX_LAYERS + 1];
+    // Overlapping pairs found this frame, dispatched in list order once testing is done
+    private PairBuffer contacts = new PairBuffer(256);
+
+    // Contacts persisted across frames, keyed by stable collider id
+    private ContactCache contactCache = new ContactCache(256);
+    private PairBuffer endedContacts = new PairBuffer(64);
+    private CollisionComponent[] collidersById = new CollisionComponent[64];
+    // Which colliders were asleep when detection started; their pairs with each other went untested
+    private boolean[] staticById = new boolean[64];
+    private int[] freeIds = new int[64];
+    private int freeIdCount;
+    private int nextId;
+
+    // Parallel narrow phase: candidate pairs are split into chunks, each with its own contact buffer
+    private boolean parallelNarrowPhase;
+    private int narrowPhaseChunkSize = DEFAULT_NARROW_PHASE_CHUNK;
+    private int narrowPhaseThreshold = DEFAULT_NARROW_PHASE_THRESHOLD;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private List<NarrowPhaseTask> narrowPhaseTasks = new ArrayList<>();
+    private PairBuffer narrowPhaseCandidates;
+    private int activeTasks;
+    private final RecursiveAction narrowPhaseRoot = new RecursiveAction() {
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(narrowPhaseTasks.subList(0, activeTasks));
+        }
+    };
+
+    // Continuous pass: swept hits for fast colliders, found through the query tree
+    private SweptContacts sweptContacts = new SweptContacts(16);
+    private float lastDeltaTime;
+    private CollisionComponent sweepSource;
+    private float sweepMotionX;
+    private float sweepMotionY;
+    private float motionX;
+    private float motionY;
+    private final ColliderQueryCallback sweepCallback = new ColliderQueryCallback() {
+        @Override
+        public boolean onCollider(CollisionComponent other) {
+            testSwept(other);
+            return true;
+        }
+    };
+
+    // Removals requested from inside callbacks wait until dispatch has finished
+    private boolean dispatching;
+    private List<CollisionComponent> pendingRemovals = new ArrayList<>();
+
+    // Optional: contact changes are also published here, for subscribers that run after the pair loop
+    private EventQueue<CollisionEvent> collisionEvents;
+    private boolean stayEventsPublished;
+
+    // Work done by the last detectCollisions, reported through collectCounters
+    private long pairsTested;
+    private long callbacksDispatched;
 
     public CollisionManager() {
+        this(BroadPhaseMode.SPATIAL_HASH, DEFAULT_CELL_SIZE);
+    }
+
+    public CollisionManager(BroadPhaseMode broadPhaseMode, float cellSize) {
         this.collisionComponents = new ArrayList<>();
+        this.broadPhaseMode = broadPhaseMode;
+        this.spatialHash = new SpatialHashGrid(cellSize);
+        this.queryTree = new DynamicAABBTree(DEFAULT_TREE_MARGIN);
+        this.collisionMatrix = new CollisionMatrix();
     }
 
     @Override
@@ -15,49 +109,626 @@ public class CollisionManager implements IManager {
 
     @Override
     public void update(float deltaTime) {
+        lastDeltaTime = deltaTime;
         detectCollisions();
     }
 
     @Override
     public void shutdown() {
+        for (CollisionComponent component : collisionComponents) {
+            if (component.proxyId != -1) {
+                queryTree.destroyProxy(component.proxyId);
+                component.proxyId = -1;
+            }
+            component.colliderId = -1;
+            component.listIndex = -1;
+            component.manager = null;
+        }
         collisionComponents.clear();
+        contactCache.clear();
+        Arrays.fill(collidersById, null);
+        freeIdCount = 0;
+        nextId = 0;
+    }
+
+    @Override
+    public Set<Class<? extends Component>> getReadTypes() {
+        return READS;
     }
 
+    @Override
+    public Set<Class<? extends Component>> getWriteTypes() {
+        return WRITES;
+    }
+
+    // Reinserts only the colliders that left their fattened box since the last update
+    public void updateQueryTree() {
+        for (int i = 0; i < collisionComponents.size(); i++) {
+            CollisionComponent component = collisionComponents.get(i);
+            Rectangle bounds = component.getBounds();
+
+            if (bounds == null) {
+                if (component.proxyId != -1) {
+                    queryTree.destroyProxy(component.proxyId);
+                    component.proxyId = -1;
+                }
+            } else if (component.proxyId == -1) {
+                component.proxyId = queryTree.createProxy(component, bounds);
+            } else {
+                queryTree.moveProxy(component.proxyId, bounds);
+            }
+        }
+    }
+
+    // Queries reflect positions as of the last updateQueryTree(), filtered by current bounds
+    public void queryRegion(Rectangle region, ColliderQueryCallback callback) {
+        queryTree.query(region.x, region.y, region.x + region.width, region.y + region.height, callback);
+    }
+
+    public void queryPoint(float x, float y, ColliderQueryCallback callback) {
+        queryTree.queryPoint(x, y, callback);
+    }
+
+    public void raycast(float startX, float startY, float endX, float endY, RaycastCallback callback) {
+        queryTree.raycast(startX, startY, endX, endY, callback);
+    }
+
+    // Refreshes the query tree first, since continuous colliders are swept through it
     public void detectCollisions() {
-        // Check every pair of collision components
+        updateQueryTree();
+        pairsTested = 0;
+        callbacksDispatched = 0;
+        contactCache.beginFrame();
         for (int i = 0; i < collisionComponents.size(); i++) {
-            for (int j = i + 1; j < collisionComponents.size(); j++) {
-                CollisionComponent a = collisionComponents.get(i);
-                CollisionComponent b = collisionComponents.get(j);
-                
-                if (canCollide(a, b) && checkCollision(a, b)) {
-                    handleCollision(a, b);
+            CollisionComponent component = collisionComponents.get(i);
+            staticById[component.colliderId] = component.isStatic();
+        }
+        if (broadPhaseMode == BroadPhaseMode.SPATIAL_HASH) {
+            detectWithSpatialHash();
+        } else {
+            detectBruteForce();
+        }
+    }
+
+    private void detectBruteForce() {
+        // Check every pair of collision components whose layers are allowed to collide
+        buildLayerBuckets();
+        contacts.clear();
+        for (int layerA = 1; layerA < CollisionMatrix.MAX_LAYERS; layerA++) {
+            int startA = layerStart[layerA];
+            int endA = layerStart[layerA + 1];
+            if (startA == endA) continue;
+
+            long mask = collisionMatrix.getMask(layerA);
+            for (int layerB = layerA; layerB < CollisionMatrix.MAX_LAYERS; layerB++) {
+                if ((mask & (1L << layerB)) == 0) continue;
+                int startB = layerStart[layerB];
+                int endB = layerStart[layerB + 1];
+
+                for (int i = startA; i < endA; i++) {
+                    CollisionComponent a = collisionComponents.get(layerBuckets[i]);
+                    boolean staticA = staticById[a.colliderId];
+                    for (int j = layerA == layerB ? i + 1 : startB; j < endB; j++) {
+                        CollisionComponent b = collisionComponents.get(layerBuckets[j]);
+                        if (staticA && staticById[b.colliderId]) continue;
+                        pairsTested++;
+                        if (a.canCollideWith(b) && checkCollision(a, b)) {
+                            contacts.add(layerBuckets[i], layerBuckets[j]);
+                        }
+                    }
                 }
             }
         }
+
+        // Cross-layer pairs are found out of order; sort back to list order
+        contacts.sortUnique();
+        detectContinuous();
+        dispatchContacts();
+    }
+
+    private void buildLayerBuckets() {
+        int count = collisionComponents.size();
+        if (layerBuckets.length < count) {
+            layerBuckets = new int[Math.max(count, layerBuckets.length * 2)];
+        }
+
+        Arrays.fill(layerStart, 0);
+        for (int i = 0; i < count; i++) {
+            layerStart[collisionComponents.get(i).getCollisionLayer() + 1]++;
+        }
+        for (int layer = 0; layer < CollisionMatrix.MAX_LAYERS; layer++) {
+            layerStart[layer + 1] += layerStart[layer];
+        }
+        for (int i = 0; i < count; i++) {
+            int layer = collisionComponents.get(i).getCollisionLayer();
+            layerBuckets[layerStart[layer]++] = i;
+        }
+        // Filling advanced every start to the next bucket; shift them back
+        for (int layer = CollisionMatrix.MAX_LAYERS; layer > 0; layer--) {
+            layerStart[layer] = layerStart[layer - 1];
+        }
+        layerStart[0] = 0;
+    }
+
+    private void detectWithSpatialHash() {
+        spatialHash.build(collisionComponents, collisionMatrix);
+        PairBuffer pairs = spatialHash.getPairs();
+        pairsTested = pairs.size();
+        contacts.clear();
+        if (parallelNarrowPhase && pairs.size() >= narrowPhaseThreshold) {
+            testPairsParallel(pairs);
+        } else {
+            testPairs(pairs, 0, pairs.size(), contacts);
+        }
+        detectContinuous();
+        dispatchContacts();
+    }
+
+    private void testPairs(PairBuffer pairs, int from, int to, PairBuffer out) {
+        for (int p = from; p < to; p++) {
+            CollisionComponent a = collisionComponents.get(pairs.getFirst(p));
+            CollisionComponent b = collisionComponents.get(pairs.getSecond(p));
+
+            if (canCollide(a, b) && checkCollision(a, b)) {
+                out.add(pairs.getFirst(p), pairs.getSecond(p));
+            }
+        }
+    }
+
+    /**
+     * Runs the overlap tests for contiguous ranges of the sorted candidate list on the
+     * pool. Building the grid already refreshed every collider's cached bounds, so the
+     * workers only read them. Each chunk writes to its own buffer and the buffers are
+     * appended in chunk order, which keeps the contacts sorted for dispatch.
+     */
+    private void testPairsParallel(PairBuffer pairs) {
+        int chunks = (pairs.size() + narrowPhaseChunkSize - 1) / narrowPhaseChunkSize;
+        while (narrowPhaseTasks.size() < chunks) {
+            narrowPhaseTasks.add(new NarrowPhaseTask());
+        }
+        for (int c = 0; c < chunks; c++) {
+            NarrowPhaseTask task = narrowPhaseTasks.get(c);
+            task.reinitialize();
+            task.from = c * narrowPhaseChunkSize;
+            task.to = Math.min(pairs.size(), task.from + narrowPhaseChunkSize);
+        }
+        narrowPhaseCandidates = pairs;
+        activeTasks = chunks;
+        narrowPhaseRoot.reinitialize();
+        pool.invoke(narrowPhaseRoot);
+
+        for (int c = 0; c < chunks; c++) {
+            contacts.addAll(narrowPhaseTasks.get(c).results);
+        }
+    }
+
+    /**
+     * Sweeps each continuous collider from its previous to its current position against
+     * everything its swept box touches. The test uses the relative motion of the pair, so a
+     * moving target is handled too. Motion is the transform's displacement over the tick.
+     * It only counts when the body's velocity explains it; setPosition jumps and wrapping
+     * are not swept.
+     */
+    private void detectContinuous() {
+        sweptContacts.clear();
+        for (int i = 0; i < collisionComponents.size(); i++) {
+            CollisionComponent component = collisionComponents.get(i);
+            if (!component.isContinuous() || !component.isEnabled()) continue;
+            Rectangle bounds = component.getBounds();
+            if (bounds == null || !computeMotion(component)) continue;
+
+            sweepSource = component;
+            sweepMotionX = motionX;
+            sweepMotionY = motionY;
+            queryTree.query(
+                Math.min(bounds.x, bounds.x - motionX), Math.min(bounds.y, bounds.y - motionY),
+                Math.max(bounds.x, bounds.x - motionX) + bounds.width, Math.max(bounds.y, bounds.y - motionY) + bounds.height,
+                sweepCallback);
+        }
+        sweepSource = null;
+        if (sweptContacts.size() > 0) {
+            sweptContacts.sortUnique();
+        }
+    }
+
+    // Sets motionX/motionY to the collider's swept displacement this tick; false if it didn't move
+    private boolean computeMotion(CollisionComponent component) {
+        motionX = 0;
+        motionY = 0;
+        TransformComponent transform = component.getTransform();
+        PhysicsComponent physics = component.owner.getComponent(PhysicsComponent.class);
+        if (transform == null || physics == null || !physics.isEnabled()) return false;
+
+        float dx = transform.getPositionX() - transform.getPreviousPositionX();
+        float dy = transform.getPositionY() - transform.getPreviousPositionY();
+        if (dx == 0 && dy == 0) return false;
+        if (lastDeltaTime > 0) {
+            float reachX = Math.abs(physics.getVelocityX()) * lastDeltaTime * SWEEP_VELOCITY_SLACK + SWEEP_MOTION_TOLERANCE;
+            float reachY = Math.abs(physics.getVelocityY()) * lastDeltaTime * SWEEP_VELOCITY_SLACK + SWEEP_MOTION_TOLERANCE;
+            if (Math.abs(dx) > reachX || Math.abs(dy) > reachY) return false;
+        }
+        motionX = dx;
+        motionY = dy;
+        return true;
+    }
+
+    private void testSwept(CollisionComponent other) {
+        CollisionComponent source = sweepSource;
+        if (other == source || !canCollide(source, other)) return;
+        pairsTested++;
+
+        computeMotion(other);
+        float relativeX = sweepMotionX - motionX;
+        float relativeY = sweepMotionY - motionY;
+
+        // Both boxes at the start of the tick; the source moves by the relative motion over t in [0, 1]
+        Rectangle a = source.getBounds();
+        Rectangle b = other.getBounds();
+        float aMinX = a.x - sweepMotionX;
+        float aMinY = a.y - sweepMotionY;
+        float bMinX = b.x - motionX;
+        float bMinY = b.y - motionY;
+
+        float entryX;
+        float exitX;
+        if (relativeX > 0) {
+            entryX = (bMinX - (aMinX + a.width)) / relativeX;
+            exitX = (bMinX + b.width - aMinX) / relativeX;
+        } else if (relativeX < 0) {
+            entryX = (bMinX + b.width - aMinX) / relativeX;
+            exitX = (bMinX - (aMinX + a.width)) / relativeX;
+        } else if (aMinX < bMinX + b.width && aMinX + a.width > bMinX) {
+            entryX = Float.NEGATIVE_INFINITY;
+            exitX = Float.POSITIVE_INFINITY;
+        } else {
+            return;
+        }
+
+        float entryY;
+        float exitY;
+        if (relativeY > 0) {
+            entryY = (bMinY - (aMinY + a.height)) / relativeY;
+            exitY = (bMinY + b.height - aMinY) / relativeY;
+        } else if (relativeY < 0) {
+            entryY = (bMinY + b.height - aMinY) / relativeY;
+            exitY = (bMinY - (aMinY + a.height)) / relativeY;
+        } else if (aMinY < bMinY + b.height && aMinY + a.height > bMinY) {
+            entryY = Float.NEGATIVE_INFINITY;
+            exitY = Float.POSITIVE_INFINITY;
+        } else {
+            return;
+        }
+
+        float entry = Math.max(entryX, entryY);
+        float exit = Math.min(exitX, exitY);
+        // Already overlapping at the start is the discrete test's job
+        if (entry < 0 || entry >= 1 || entry >= exit) return;
+
+        // Normal of the face the source hit, as seen by the source
+        float normalX = 0;
+        float normalY = 0;
+        if (entryX > entryY) {
+            normalX = relativeX > 0 ? -1 : 1;
+        } else {
+            normalY = relativeY > 0 ? -1 : 1;
+        }
+        sweptContacts.add(source.colliderId, other.colliderId, entry, normalX, normalY);
+    }
+
+    // Contacts are sorted by list index, so every broad phase reports in the same order.
+    // Swept hits with no end-of-tick overlap follow in collider id order.
+    private void dispatchContacts() {
+        dispatching = true;
+        callbacksDispatched += 2L * contacts.size();
+        boolean swept = sweptContacts.size() > 0;
+        for (int p = 0; p < contacts.size(); p++) {
+            CollisionComponent a = collisionComponents.get(contacts.getFirst(p));
+            CollisionComponent b = collisionComponents.get(contacts.getSecond(p));
+            int hit = swept ? sweptContacts.find(a.colliderId, b.colliderId) : -1;
+            if (hit == -1) {
+                handleCollision(a, b);
+            } else {
+                sweptContacts.markDispatched(hit);
+                handleSweptCollision(a, b, hit);
+            }
+        }
+        for (int h = 0; h < sweptContacts.size(); h++) {
+            if (sweptContacts.isDispatched(h)) continue;
+            CollisionComponent a = collidersById[sweptContacts.getFirst(h)];
+            CollisionComponent b = collidersById[sweptContacts.getSecond(h)];
+            // A callback earlier in this dispatch may have disabled either side
+            if (a == null || b == null || !a.canCollideWith(b)) continue;
+            callbacksDispatched += 2;
+            handleSweptCollision(a, b, h);
+        }
+
+        // Anything in the cache that wasn't touched this frame has separated, unless both
+        // sides are asleep and the pair simply wasn't tested
+        contactCache.removeStale(endedContacts);
+        dispatchExits(endedContacts, true);
+        dispatching = false;
+        flushPendingRemovals();
+    }
+
+    private void flushPendingRemovals() {
+        for (int i = 0; i < pendingRemovals.size(); i++) {
+            removeCollisionComponent(pendingRemovals.get(i));
+        }
+        pendingRemovals.clear();
+    }
+
+    private void dispatchExits(PairBuffer ended, boolean keepResting) {
+        for (int p = 0; p < ended.size(); p++) {
+            CollisionComponent a = collidersById[ended.getFirst(p)];
+            CollisionComponent b = collidersById[ended.getSecond(p)];
+            if (keepResting && staticById[a.colliderId] && staticById[b.colliderId] && a.canCollideWith(b)) {
+                contactCache.touch(a.colliderId, b.colliderId);
+                continue;
+            }
+            callbacksDispatched += 2;
+            publish(CollisionEvent.Kind.EXIT, a, b);
+            if (a.isTrigger() || b.isTrigger()) {
+                a.onTriggerExit(b);
+                b.onTriggerExit(a);
+            } else {
+                a.onCollisionExit(b);
+                b.onCollisionExit(a);
+            }
+        }
     }
 
     public boolean checkCollision(CollisionComponent a, CollisionComponent b) {
-        if (a.getBounds() == null || b.getBounds() == null) {
+        Rectangle boundsA = a.getBounds();
+        Rectangle boundsB = b.getBounds();
+        if (boundsA == null || boundsB == null) {
             return false;
         }
-        return a.getBounds().overlaps(b.getBounds());
+        return boundsA.overlaps(boundsB);
     }
 
+    // Called for every overlapping pair each frame; routes to enter or stay via the contact cache
     protected void handleCollision(CollisionComponent a, CollisionComponent b) {
-        a.onCollisionEnter(b);
-        b.onCollisionEnter(a);
+        boolean entered = contactCache.touch(a.colliderId, b.colliderId);
+        if (entered) {
+            a.wake();
+            b.wake();
+        }
+        publish(entered ? CollisionEvent.Kind.ENTER : CollisionEvent.Kind.STAY, a, b);
+        if (a.isTrigger() || b.isTrigger()) {
+            if (entered) {
+                a.onTriggerEnter(b);
+                b.onTriggerEnter(a);
+            } else {
+                a.onTriggerStay(b);
+                b.onTriggerStay(a);
+            }
+        } else if (entered) {
+            a.onCollisionEnter(b);
+            b.onCollisionEnter(a);
+        } else {
+            a.onCollisionStay(b);
+            b.onCollisionStay(a);
+        }
+    }
+
+    @Override
+    public void collectCounters(FrameCounters counters) {
+        counters.entitiesProcessed += collisionComponents.size();
+        counters.pairsTested += pairsTested;
+        counters.pairsOverlapped += contacts.size();
+        counters.callbacksDispatched += callbacksDispatched;
+    }
+
+    private void handleSweptCollision(CollisionComponent a, CollisionComponent b, int hit) {
+        handleContinuousCollision(a, b, sweptContacts.getTimeOfImpact(hit),
+            sweptContacts.getNormalX(hit, a.colliderId), sweptContacts.getNormalY(hit, a.colliderId));
+    }
+
+    // Like handleCollision, for pairs a continuous sweep found; the normal is the one a sees
+    protected void handleContinuousCollision(CollisionComponent a, CollisionComponent b,
+                                             float timeOfImpact, float normalX, float normalY) {
+        boolean entered = contactCache.touch(a.colliderId, b.colliderId);
+        if (entered) {
+            a.wake();
+            b.wake();
+            publishSwept(a, b, timeOfImpact, normalX, normalY);
+        } else {
+            publish(CollisionEvent.Kind.STAY, a, b);
+        }
+        if (a.isTrigger() || b.isTrigger()) {
+            if (entered) {
+                a.onTriggerEnter(b, timeOfImpact, normalX, normalY);
+                b.onTriggerEnter(a, timeOfImpact, -normalX, -normalY);
+            } else {
+                a.onTriggerStay(b);
+                b.onTriggerStay(a);
+            }
+        } else if (entered) {
+            a.onCollisionEnter(b, timeOfImpact, normalX, normalY);
+            b.onCollisionEnter(a, timeOfImpact, -normalX, -normalY);
+        } else {
+            a.onCollisionStay(b);
+            b.onCollisionStay(a);
+        }
+    }
+
+    private void publish(CollisionEvent.Kind kind, CollisionComponent a, CollisionComponent b) {
+        if (collisionEvents == null || (kind == CollisionEvent.Kind.STAY && !stayEventsPublished)) return;
+        long sequence = collisionEvents.claim();
+        if (sequence < 0) return;
+        collisionEvents.get(sequence).set(kind, a, b);
+        collisionEvents.publish(sequence);
+    }
+
+    private void publishSwept(CollisionComponent a, CollisionComponent b,
+                              float timeOfImpact, float normalX, float normalY) {
+        if (collisionEvents == null) return;
+        long sequence = collisionEvents.claim();
+        if (sequence < 0) return;
+        CollisionEvent event = collisionEvents.get(sequence);
+        event.set(CollisionEvent.Kind.ENTER, a, b);
+        event.setSweep(timeOfImpact, normalX, normalY);
+        collisionEvents.publish(sequence);
+    }
+
+    public EventQueue<CollisionEvent> getCollisionEvents() {
+        return collisionEvents;
+    }
+
+    // Enter and exit events go to the queue as well as the component callbacks; null turns it off
+    public void setCollisionEvents(EventQueue<CollisionEvent> collisionEvents) {
+        this.collisionEvents = collisionEvents;
+    }
+
+    public boolean isStayEventsPublished() {
+        return stayEventsPublished;
+    }
+
+    // Stay events are one per resting pair per tick, so they're off unless asked for
+    public void setStayEventsPublished(boolean stayEventsPublished) {
+        this.stayEventsPublished = stayEventsPublished;
+    }
+
+    public int getContactCount() {
+        return contactCache.size();
     }
 
     public boolean canCollide(CollisionComponent a, CollisionComponent b) {
-        return a.canCollideWith(b);
+        return a.canCollideWith(b) && collisionMatrix.canCollide(a.getCollisionLayer(), b.getCollisionLayer());
+    }
+
+    public CollisionMatrix getCollisionMatrix() {
+        return collisionMatrix;
+    }
+
+    public void setCollisionMatrix(CollisionMatrix collisionMatrix) {
+        this.collisionMatrix = collisionMatrix;
+    }
+
+    public BroadPhaseMode getBroadPhaseMode() {
+        return broadPhaseMode;
+    }
+
+    public void setBroadPhaseMode(BroadPhaseMode broadPhaseMode) {
+        this.broadPhaseMode = broadPhaseMode;
+    }
+
+    public float getCellSize() {
+        return spatialHash.getCellSize();
+    }
+
+    public void setCellSize(float cellSize) {
+        spatialHash.setCellSize(cellSize);
+    }
+
+    public boolean isParallelNarrowPhase() {
+        return parallelNarrowPhase;
+    }
+
+    // Callbacks always run on the thread calling update(); only the overlap tests are parallel
+    public void setParallelNarrowPhase(boolean parallelNarrowPhase) {
+        this.parallelNarrowPhase = parallelNarrowPhase;
+    }
+
+    // Below this many candidate pairs the narrow phase stays on the calling thread
+    public void setNarrowPhaseThreshold(int narrowPhaseThreshold) {
+        this.narrowPhaseThreshold = narrowPhaseThreshold;
+    }
+
+    public void setNarrowPhaseChunkSize(int narrowPhaseChunkSize) {
+        if (narrowPhaseChunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + narrowPhaseChunkSize);
+        }
+        this.narrowPhaseChunkSize = narrowPhaseChunkSize;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public float getTreeMargin() {
+        return queryTree.getMargin();
+    }
+
+    public void setTreeMargin(float margin) {
+        queryTree.setMargin(margin);
     }
 
     public void addCollisionComponent(CollisionComponent component) {
+        if (component.colliderId != -1) return;
+        component.colliderId = allocateId();
+        component.manager = this;
+        collidersById[component.colliderId] = component;
+        component.listIndex = collisionComponents.size();
         collisionComponents.add(component);
+
+        Rectangle bounds = component.getBounds();
+        if (bounds != null && component.proxyId == -1) {
+            component.proxyId = queryTree.createProxy(component, bounds);
+        }
     }
 
     public void removeCollisionComponent(CollisionComponent component) {
-        collisionComponents.remove(component);
+        if (component.colliderId == -1 || collidersById[component.colliderId] != component) return;
+        if (dispatching) {
+            pendingRemovals.add(component);
+            return;
+        }
+        // Swap-remove; list order only decides dispatch order, which stays deterministic
+        CollisionComponent last = collisionComponents.remove(collisionComponents.size() - 1);
+        if (last != component) {
+            collisionComponents.set(component.listIndex, last);
+            last.listIndex = component.listIndex;
+        }
+        component.listIndex = -1;
+
+        if (component.proxyId != -1) {
+            queryTree.destroyProxy(component.proxyId);
+            component.proxyId = -1;
+        }
+
+        // Close out any contacts the collider was part of before its id is reused
+        contactCache.removeInvolving(component.colliderId, endedContacts);
+        dispatching = true;
+        dispatchExits(endedContacts, false);
+        dispatching = false;
+
+        collidersById[component.colliderId] = null;
+        releaseId(component.colliderId);
+        component.colliderId = -1;
+        component.manager = null;
+        flushPendingRemovals();
+    }
+
+    private int allocateId() {
+        if (freeIdCount > 0) {
+            return freeIds[--freeIdCount];
+        }
+        if (nextId == collidersById.length) {
+            collidersById = Arrays.copyOf(collidersById, nextId * 2);
+            staticById = Arrays.copyOf(staticById, nextId * 2);
+        }
+        return nextId++;
+    }
+
+    private void releaseId(int id) {
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+    private class NarrowPhaseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final PairBuffer results = new PairBuffer(256);
+        int from;
+        int to;
+
+        @Override
+        protected void compute() {
+            results.clear();
+            testPairs(narrowPhaseCandidates, from, to, results);
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.mygdx.game;
+
+/**
+ * Symmetric layer-vs-layer collision table stored as one bitmask per layer.
+ * Layer 0 means "no collisions" and never collides; every other layer starts out
+ * colliding with every other non-zero layer.
+ */
+public class CollisionMatrix {
+    public static final int MAX_LAYERS = 64;
+
+    private final long[] masks = new long[MAX_LAYERS];
+
+    public CollisionMatrix() {
+        reset();
+    }
+
+    // Restores the default where all non-zero layers collide with each other
+    public void reset() {
+        masks[0] = 0L;
+        for (int layer = 1; layer < MAX_LAYERS; layer++) {
+            masks[layer] = ~1L;
+        }
+    }
+
+    public void setCollides(int layerA, int layerB, boolean collides) {
+        checkLayer(layerA);
+        checkLayer(layerB);
+        if (layerA == 0 || layerB == 0) {
+            if (collides) throw new IllegalArgumentException("Layer 0 cannot collide");
+            return;
+        }
+
+        if (collides) {
+            masks[layerA] |= 1L << layerB;
+            masks[layerB] |= 1L << layerA;
+        } else {
+            masks[layerA] &= ~(1L << layerB);
+            masks[layerB] &= ~(1L << layerA);
+        }
+    }
+
+    public void setLayerEnabled(int layer, boolean enabled) {
+        for (int other = 1; other < MAX_LAYERS; other++) {
+            setCollides(layer, other, enabled);
+        }
+    }
+
+    public boolean canCollide(int layerA, int layerB) {
+        return (masks[layerA] & (1L << layerB)) != 0;
+    }
+
+    public long getMask(int layer) {
+        checkLayer(layer);
+        return masks[layer];
+    }
+
+    public static void checkLayer(int layer) {
+        if (layer < 0 || layer >= MAX_LAYERS) {
+            throw new IllegalArgumentException("Collision layer out of range [0, " + MAX_LAYERS + "): " + layer);
+        }
+    }
+}
@@ -8,6 +8,16 @@ public abstract class Component {
     public void onDetach() { this.owner = null; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
     public boolean isEnabled() { return enabled; }
-    
+
+    // Prefab support: a new component configured like this one
+    public Component copy() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be used in a Prefab");
+    }
+
+    // Prefab support: resets a recycled component to the template's settings
+    public void set(Component template) {
+        this.enabled = template.enabled;
+    }
+
     public abstract void update(float deltaTime);
 }
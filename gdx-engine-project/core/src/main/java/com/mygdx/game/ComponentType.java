@@ -0,0 +1,26 @@
+package com.mygdx.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Assigns each component class a small integer id used to index Entity's component array. */
+public final class ComponentType {
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private static final ClassValue<Integer> ids = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return nextId.getAndIncrement();
+        }
+    };
+
+    private ComponentType() { }
+
+    public static int of(Class<? extends Component> type) {
+        return ids.get(type);
+    }
+
+    // Number of ids handed out so far, an upper bound for every typeId
+    public static int count() {
+        return nextId.get();
+    }
+}
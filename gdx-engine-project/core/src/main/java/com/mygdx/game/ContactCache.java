@@ -0,0 +1,193 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Set of touching collider pairs that persists across frames. Keys are the two
+ * collider ids packed into a long, kept in an open-addressing table together with
+ * the frame they were last seen in, so nothing is boxed or allocated once the table
+ * and the stale buffer have grown to the scene's contact count. Each id also keeps a
+ * list of the ids it touches, so removing a collider only visits its own contacts.
+ */
+public class ContactCache {
+    private static final int EMPTY = 0;
+
+    private long[] keys;
+    private int[] stamps;
+    private int size;
+    private int frame = 1;
+
+    // Per collider id: the ids it is in contact with, unordered
+    private int[][] partners = new int[64][];
+    private int[] partnerCounts = new int[64];
+
+    public ContactCache(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) << 1;
+        this.keys = new long[tableSize];
+        this.stamps = new int[tableSize];
+    }
+
+    public static long key(int idA, int idB) {
+        return idA < idB ? ((long) idA << 32) | idB : ((long) idB << 32) | idA;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void beginFrame() {
+        if (frame == Integer.MAX_VALUE) {
+            // Keep only the distinction between "this frame" and "earlier"
+            for (int i = 0; i < stamps.length; i++) {
+                if (stamps[i] != EMPTY) stamps[i] = 1;
+            }
+            frame = 1;
+        }
+        frame++;
+    }
+
+    // Marks the pair as touching this frame; returns true if it was not touching before
+    public boolean touch(int idA, int idB) {
+        long key = key(idA, idB);
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (stamps[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                stamps[slot] = frame;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        stamps[slot] = frame;
+        size++;
+        addPartner(idA, idB);
+        addPartner(idB, idA);
+        return true;
+    }
+
+    // Moves every pair not touched this frame into out and removes it from the cache
+    public void removeStale(PairBuffer out) {
+        out.clear();
+        for (int i = 0; i < keys.length; i++) {
+            if (stamps[i] != EMPTY && stamps[i] != frame) {
+                out.add((int) (keys[i] >>> 32), (int) keys[i]);
+            }
+        }
+        removeAll(out);
+    }
+
+    // Moves every pair involving the given collider id into out and removes it
+    public void removeInvolving(int id, PairBuffer out) {
+        out.clear();
+        if (id < partnerCounts.length) {
+            int[] list = partners[id];
+            for (int i = 0; i < partnerCounts[id]; i++) {
+                out.add(id, list[i]);
+            }
+        }
+        removeAll(out);
+    }
+
+    public void clear() {
+        Arrays.fill(stamps, EMPTY);
+        Arrays.fill(partnerCounts, 0);
+        size = 0;
+    }
+
+    private void removeAll(PairBuffer pairs) {
+        // Sorted so exit callbacks fire in a stable order
+        pairs.sortUnique();
+        for (int p = 0; p < pairs.size(); p++) {
+            remove(key(pairs.getFirst(p), pairs.getSecond(p)));
+        }
+    }
+
+    private void remove(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (stamps[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                removeAt(slot);
+                removePartner((int) (key >>> 32), (int) key);
+                removePartner((int) key, (int) (key >>> 32));
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (stamps[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!stays) {
+                keys[hole] = keys[next];
+                stamps[hole] = stamps[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        stamps[hole] = EMPTY;
+        size--;
+    }
+
+    private void addPartner(int id, int partner) {
+        if (id >= partnerCounts.length) {
+            int length = Math.max(id + 1, partnerCounts.length * 2);
+            partners = Arrays.copyOf(partners, length);
+            partnerCounts = Arrays.copyOf(partnerCounts, length);
+        }
+        int[] list = partners[id];
+        int count = partnerCounts[id];
+        if (list == null) {
+            list = partners[id] = new int[4];
+        } else if (count == list.length) {
+            list = partners[id] = Arrays.copyOf(list, count * 2);
+        }
+        list[count] = partner;
+        partnerCounts[id] = count + 1;
+    }
+
+    private void removePartner(int id, int partner) {
+        int[] list = partners[id];
+        int last = --partnerCounts[id];
+        for (int i = 0; i <= last; i++) {
+            if (list[i] == partner) {
+                list[i] = list[last];
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldStamps = stamps;
+        keys = new long[oldKeys.length * 2];
+        stamps = new int[oldKeys.length * 2];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == EMPTY) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (stamps[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            stamps[slot] = oldStamps[i];
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
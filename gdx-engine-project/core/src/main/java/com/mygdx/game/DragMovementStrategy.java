@@ -0,0 +1,35 @@
+package com.mygdx.game;
+
+/** Linear drag: velocity shrinks by coefficient * deltaTime of itself each step, never reversing. */
+public class DragMovementStrategy implements MovementStrategy, BatchMovementStrategy {
+    private final float coefficient;
+
+    public DragMovementStrategy(float coefficient) {
+        if (coefficient < 0) {
+            throw new IllegalArgumentException("Drag coefficient must not be negative: " + coefficient);
+        }
+        this.coefficient = coefficient;
+    }
+
+    @Override
+    public void applyMovement(TransformComponent transform, PhysicsComponent physics, float deltaTime) {
+        float factor = Math.max(0f, 1f - coefficient * deltaTime);
+        physics.setVelocity(physics.getVelocityX() * factor, physics.getVelocityY() * factor);
+    }
+
+    @Override
+    public void applyMovement(MovementBatch batch, int from, int to, float deltaTime) {
+        float[] velocityX = batch.velocityX;
+        float[] velocityY = batch.velocityY;
+        float factor = Math.max(0f, 1f - coefficient * deltaTime);
+        for (int i = from; i < to; i++) {
+            velocityX[i] *= factor;
+            velocityY[i] *= factor;
+        }
+    }
+
+    @Override
+    public boolean isParallelSafe() {
+        return true;
+    }
+}
@@ -0,0 +1,465 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Balanced bounding-volume tree over collider bounds. Each leaf stores a fattened
+ * box so that small movements don't touch the tree; a leaf is only reinserted once
+ * its collider leaves the fat box. Nodes live in parallel primitive arrays and the
+ * traversal stack is shared, so queries don't allocate once the tree has grown.
+ */
+public class DynamicAABBTree {
+    private static final int NULL_NODE = -1;
+
+    private float margin;
+
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+    private int[] parent;
+    private int[] child1;
+    private int[] child2;
+    private int[] height;
+    private CollisionComponent[] colliders;
+
+    private int root = NULL_NODE;
+    private int freeList;
+    private int nodeCount;
+
+    // Shared traversal stack; nested queries push above the caller's entries
+    private int[] stack = new int[64];
+    private int stackTop;
+
+    public DynamicAABBTree(float margin) {
+        this.margin = margin;
+        allocateNodes(16);
+    }
+
+    public float getMargin() {
+        return margin;
+    }
+
+    public void setMargin(float margin) {
+        this.margin = margin;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getHeight() {
+        return root == NULL_NODE ? 0 : height[root];
+    }
+
+    public int createProxy(CollisionComponent collider, Rectangle bounds) {
+        int proxy = allocateNode();
+        setFatBounds(proxy, bounds);
+        colliders[proxy] = collider;
+        height[proxy] = 0;
+        insertLeaf(proxy);
+        return proxy;
+    }
+
+    public void destroyProxy(int proxy) {
+        removeLeaf(proxy);
+        freeNode(proxy);
+    }
+
+    // Returns true if the proxy had to be reinserted
+    public boolean moveProxy(int proxy, Rectangle bounds) {
+        if (minX[proxy] <= bounds.x && minY[proxy] <= bounds.y
+                && maxX[proxy] >= bounds.x + bounds.width && maxY[proxy] >= bounds.y + bounds.height) {
+            return false;
+        }
+        removeLeaf(proxy);
+        setFatBounds(proxy, bounds);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    public CollisionComponent getCollider(int proxy) {
+        return colliders[proxy];
+    }
+
+    // Reports colliders whose actual bounds overlap the given box
+    public void query(float queryMinX, float queryMinY, float queryMaxX, float queryMaxY,
+                      ColliderQueryCallback callback) {
+        if (root == NULL_NODE) return;
+
+        int base = stackTop;
+        push(root);
+        while (stackTop > base) {
+            int node = stack[--stackTop];
+            if (minX[node] > queryMaxX || maxX[node] < queryMinX
+                    || minY[node] > queryMaxY || maxY[node] < queryMinY) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                CollisionComponent collider = colliders[node];
+                Rectangle bounds = collider.getBounds();
+                if (bounds == null || !collider.isEnabled()) continue;
+                if (bounds.x < queryMaxX && bounds.x + bounds.width > queryMinX
+                        && bounds.y < queryMaxY && bounds.y + bounds.height > queryMinY
+                        && !callback.onCollider(collider)) {
+                    stackTop = base;
+                    return;
+                }
+            } else {
+                push(child1[node]);
+                push(child2[node]);
+            }
+        }
+    }
+
+    // Reports colliders whose actual bounds contain the point
+    public void queryPoint(float x, float y, ColliderQueryCallback callback) {
+        if (root == NULL_NODE) return;
+
+        int base = stackTop;
+        push(root);
+        while (stackTop > base) {
+            int node = stack[--stackTop];
+            if (minX[node] > x || maxX[node] < x || minY[node] > y || maxY[node] < y) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                CollisionComponent collider = colliders[node];
+                Rectangle bounds = collider.getBounds();
+                if (bounds == null || !collider.isEnabled()) continue;
+                if (bounds.contains(x, y) && !callback.onCollider(collider)) {
+                    stackTop = base;
+                    return;
+                }
+            } else {
+                push(child1[node]);
+                push(child2[node]);
+            }
+        }
+    }
+
+    // Casts the segment (x1, y1) -> (x2, y2) against the actual collider bounds
+    public void raycast(float x1, float y1, float x2, float y2, RaycastCallback callback) {
+        if (root == NULL_NODE) return;
+
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float maxFraction = 1f;
+
+        int base = stackTop;
+        push(root);
+        while (stackTop > base) {
+            int node = stack[--stackTop];
+            if (rayFraction(x1, y1, dx, dy, minX[node], minY[node], maxX[node], maxY[node], maxFraction) < 0) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                CollisionComponent collider = colliders[node];
+                Rectangle bounds = collider.getBounds();
+                if (bounds == null || !collider.isEnabled()) continue;
+                float fraction = rayFraction(x1, y1, dx, dy, bounds.x, bounds.y,
+                    bounds.x + bounds.width, bounds.y + bounds.height, maxFraction);
+                if (fraction < 0) continue;
+
+                maxFraction = callback.onRayHit(collider, fraction);
+                if (maxFraction <= 0) {
+                    stackTop = base;
+                    return;
+                }
+            } else {
+                push(child1[node]);
+                push(child2[node]);
+            }
+        }
+    }
+
+    // Slab test; returns the entry fraction in [0, maxFraction] or -1 on a miss
+    private static float rayFraction(float x, float y, float dx, float dy,
+                                     float boxMinX, float boxMinY, float boxMaxX, float boxMaxY,
+                                     float maxFraction) {
+        float tMin = 0f;
+        float tMax = maxFraction;
+
+        if (dx == 0f) {
+            if (x < boxMinX || x > boxMaxX) return -1f;
+        } else {
+            float inv = 1f / dx;
+            float t1 = (boxMinX - x) * inv;
+            float t2 = (boxMaxX - x) * inv;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin > tMax) return -1f;
+        }
+
+        if (dy == 0f) {
+            if (y < boxMinY || y > boxMaxY) return -1f;
+        } else {
+            float inv = 1f / dy;
+            float t1 = (boxMinY - y) * inv;
+            float t2 = (boxMaxY - y) * inv;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin > tMax) return -1f;
+        }
+        return tMin;
+    }
+
+    private boolean isLeaf(int node) {
+        return child1[node] == NULL_NODE;
+    }
+
+    private void push(int node) {
+        if (stackTop == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackTop++] = node;
+    }
+
+    private void setFatBounds(int node, Rectangle bounds) {
+        minX[node] = bounds.x - margin;
+        minY[node] = bounds.y - margin;
+        maxX[node] = bounds.x + bounds.width + margin;
+        maxY[node] = bounds.y + bounds.height + margin;
+    }
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL_NODE) {
+            root = leaf;
+            parent[leaf] = NULL_NODE;
+            return;
+        }
+
+        // Walk down picking the child that grows the perimeter the least
+        int index = root;
+        while (!isLeaf(index)) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+
+            float area = perimeter(index);
+            float combinedArea = combinedPerimeter(index, leaf);
+            float cost = 2f * combinedArea;
+            float inheritanceCost = 2f * (combinedArea - area);
+
+            float cost1 = combinedPerimeter(c1, leaf) + inheritanceCost;
+            if (!isLeaf(c1)) cost1 -= perimeter(c1);
+            float cost2 = combinedPerimeter(c2, leaf) + inheritanceCost;
+            if (!isLeaf(c2)) cost2 -= perimeter(c2);
+
+            if (cost < cost1 && cost < cost2) break;
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        colliders[newParent] = null;
+        setUnion(newParent, leaf, sibling);
+        height[newParent] = height[sibling] + 1;
+
+        if (oldParent != NULL_NODE) {
+            if (child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        refitUpwards(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL_NODE;
+            return;
+        }
+
+        int oldParent = parent[leaf];
+        int grandParent = parent[oldParent];
+        int sibling = child1[oldParent] == leaf ? child2[oldParent] : child1[oldParent];
+
+        if (grandParent != NULL_NODE) {
+            if (child1[grandParent] == oldParent) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(oldParent);
+            refitUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL_NODE;
+            freeNode(oldParent);
+        }
+    }
+
+    private void refitUpwards(int index) {
+        while (index != NULL_NODE) {
+            index = balance(index);
+            int c1 = child1[index];
+            int c2 = child2[index];
+            height[index] = 1 + Math.max(height[c1], height[c2]);
+            setUnion(index, c1, c2);
+            index = parent[index];
+        }
+    }
+
+    // Rotates the taller grandchild up when the subtree at a is out of balance
+    private int balance(int a) {
+        if (isLeaf(a) || height[a] < 2) return a;
+
+        int b = child1[a];
+        int c = child2[a];
+        int diff = height[c] - height[b];
+
+        if (diff > 1) {
+            int f = child1[c];
+            int g = child2[c];
+            child1[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            replaceChild(parent[c], a, c);
+
+            if (height[f] > height[g]) {
+                child2[c] = f;
+                child2[a] = g;
+                parent[g] = a;
+                setUnion(a, b, g);
+                setUnion(c, a, f);
+                height[a] = 1 + Math.max(height[b], height[g]);
+                height[c] = 1 + Math.max(height[a], height[f]);
+            } else {
+                child2[c] = g;
+                child2[a] = f;
+                parent[f] = a;
+                setUnion(a, b, f);
+                setUnion(c, a, g);
+                height[a] = 1 + Math.max(height[b], height[f]);
+                height[c] = 1 + Math.max(height[a], height[g]);
+            }
+            return c;
+        }
+
+        if (diff < -1) {
+            int d = child1[b];
+            int e = child2[b];
+            child1[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            replaceChild(parent[b], a, b);
+
+            if (height[d] > height[e]) {
+                child2[b] = d;
+                child1[a] = e;
+                parent[e] = a;
+                setUnion(a, c, e);
+                setUnion(b, a, d);
+                height[a] = 1 + Math.max(height[c], height[e]);
+                height[b] = 1 + Math.max(height[a], height[d]);
+            } else {
+                child2[b] = e;
+                child1[a] = d;
+                parent[d] = a;
+                setUnion(a, c, d);
+                setUnion(b, a, e);
+                height[a] = 1 + Math.max(height[c], height[d]);
+                height[b] = 1 + Math.max(height[a], height[e]);
+            }
+            return b;
+        }
+        return a;
+    }
+
+    private void replaceChild(int node, int oldChild, int newChild) {
+        if (node == NULL_NODE) {
+            root = newChild;
+        } else if (child1[node] == oldChild) {
+            child1[node] = newChild;
+        } else {
+            child2[node] = newChild;
+        }
+    }
+
+    private float perimeter(int node) {
+        return 2f * ((maxX[node] - minX[node]) + (maxY[node] - minY[node]));
+    }
+
+    private float combinedPerimeter(int a, int b) {
+        float width = Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]);
+        float height = Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]);
+        return 2f * (width + height);
+    }
+
+    private void setUnion(int node, int a, int b) {
+        minX[node] = Math.min(minX[a], minX[b]);
+        minY[node] = Math.min(minY[a], minY[b]);
+        maxX[node] = Math.max(maxX[a], maxX[b]);
+        maxY[node] = Math.max(maxY[a], maxY[b]);
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL_NODE) {
+            allocateNodes(minX.length * 2);
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL_NODE;
+        child1[node] = NULL_NODE;
+        child2[node] = NULL_NODE;
+        height[node] = 0;
+        nodeCount++;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        colliders[node] = null;
+        freeList = node;
+        nodeCount--;
+    }
+
+    private void allocateNodes(int capacity) {
+        int oldCapacity = minX == null ? 0 : minX.length;
+        if (oldCapacity == 0) {
+            minX = new float[capacity];
+            minY = new float[capacity];
+            maxX = new float[capacity];
+            maxY = new float[capacity];
+            parent = new int[capacity];
+            child1 = new int[capacity];
+            child2 = new int[capacity];
+            height = new int[capacity];
+            colliders = new CollisionComponent[capacity];
+        } else {
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            child1 = Arrays.copyOf(child1, capacity);
+            child2 = Arrays.copyOf(child2, capacity);
+            height = Arrays.copyOf(height, capacity);
+            colliders = Arrays.copyOf(colliders, capacity);
+        }
+
+        // Chain the new nodes onto the free list
+        for (int i = oldCapacity; i < capacity - 1; i++) {
+            parent[i] = i + 1;
+            height[i] = -1;
+        }
+        parent[capacity - 1] = NULL_NODE;
+        height[capacity - 1] = -1;
+        freeList = oldCapacity;
+    }
+}
@@ -1,35 +1,80 @@
 package com.mygdx.game;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Arrays;
 
 public class Entity {
-    private UUID id;
+    // Index and generation handed out by EntityManager, see EntityManager.getEntity(int)
+    int index = -1;
+    int generation;
+    // Position in EntityManager.getEntities(), -1 until the addition is committed
+    int listIndex = -1;
+    boolean pendingRemoval;
+    // Pool the entity returns to once its removal is committed, null if not spawned from one
+    EntityPool pool;
+    // Set while the entity is committed, so the manager's queries can follow changes
+    EntityManager manager;
     private boolean active;
-    private Map<Class<? extends Component>, Component> components;
+    private Component[] components;
+
+    // Slot in the EntityManager's packed storage, -1 when not packed
+    PackedStorage storage;
+    int packedSlot = -1;
 
     public Entity() {
-        this.id = UUID.randomUUID();
         this.active = true;
-        this.components = new HashMap<>();
+        this.components = new Component[Math.max(ComponentType.count(), 8)];
+    }
+
+    // Generational handle, or -1 while the entity isn't registered with an EntityManager
+    public int getId() {
+        return index == -1 ? -1 : EntityManager.handle(index, generation);
     }
 
     public void addComponent(Component component) {
+        int typeId = ComponentType.of(component.getClass());
+        if (typeId >= components.length) {
+            components = Arrays.copyOf(components, Math.max(typeId + 1, components.length * 2));
+        }
+        if (components[typeId] != null) {
+            removeComponent(component.getClass());
+        }
+
         component.onAttach(this);
-        components.put(component.getClass(), component);
+        components[typeId] = component;
+        if (storage != null) storage.componentAdded(this, component);
+        if (manager != null) manager.onEntityChanged(this);
     }
 
     public void removeComponent(Class<? extends Component> type) {
-        if (components.containsKey(type)) {
-            components.get(type).onDetach();
-            components.remove(type);
+        int typeId = ComponentType.of(type);
+        if (typeId < components.length && components[typeId] != null) {
+            if (storage != null) storage.componentRemoved(this, components[typeId]);
+            components[typeId].onDetach();
+            components[typeId] = null;
+            if (manager != null) manager.onEntityChanged(this);
         }
     }
 
-    public Component getComponent(Class<? extends Component> type) {
-        return components.get(type);
+    @SuppressWarnings("unchecked")
+    public <T extends Component> T getComponent(Class<T> type) {
+        int typeId = ComponentType.of(type);
+        // Components are stored under their exact class, so the slot always holds a T
+        return typeId < components.length ? (T) components[typeId] : null;
+    }
+
+    public boolean hasComponent(Class<? extends Component> type) {
+        return getComponent(type) != null;
+    }
+
+    // Indexed by ComponentType id; empty slots are null
+    Component[] getComponents() {
+        return components;
+    }
+
+    public void setActive(boolean active) {
+        if (this.active == active) return;
+        this.active = active;
+        if (manager != null) manager.onEntityChanged(this);
     }
 
-    public void setActive(boolean active) { this.active = active; }
     public boolean isActive() { return active; }
-}
\ No newline at end of file
+}
@@ -1,17 +1,52 @@
 package com.mygdx.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class EntityManager implements IManager {
+    // Entity handles pack a 22-bit index with a 9-bit generation, keeping them non-negative
+    public static final int INDEX_BITS = 22;
+    public static final int MAX_ENTITIES = 1 << INDEX_BITS;
+    private static final int INDEX_MASK = MAX_ENTITIES - 1;
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+    // Freed indices are reused oldest first, and only while more than this many are free,
+    // so a stale handle needs 512 * MIN_FREE_INDICES releases before it can alias again
+    private static final int MIN_FREE_INDICES = 1024;
+
     private List<Entity> entities;
     private List<Entity> entitiesToAdd;
     private List<Entity> entitiesToRemove;
+    private PackedStorage packedStorage;
+    private List<EntityQuery> queries;
+    private boolean stableOrder;
+    private Map<Prefab, EntityPool> pools;
+    private int committedChanges;
+
+    // Handle table: the live entity and current generation for every index
+    private Entity[] entitiesByIndex = new Entity[64];
+    private int[] generations = new int[64];
+    // FIFO ring of released indices
+    private int[] freeIndices = new int[64];
+    private int freeHead;
+    private int freeCount;
+    private int nextIndex;
 
     public EntityManager() {
+        this(false);
+    }
+
+    // Packed mode keeps transform and physics data in contiguous columns, see PackedStorage
+    public EntityManager(boolean packed) {
         this.entities = new ArrayList<>();
         this.entitiesToAdd = new ArrayList<>();
         this.entitiesToRemove = new ArrayList<>();
+        this.packedStorage = packed ? new PackedStorage(256) : null;
+        this.queries = new ArrayList<>();
+        this.pools = new IdentityHashMap<>();
     }
 
     // --- IManager ---
@@ -20,28 +55,237 @@ public class EntityManager implements IManager {
 
     @Override
     public void update(float deltaTime) {
+        committedChanges = entitiesToRemove.size() + entitiesToAdd.size();
         // Process removals first
-        entities.removeAll(entitiesToRemove);
+        if (stableOrder && !entitiesToRemove.isEmpty()) {
+            compactEntities();
+        }
+        for (int i = 0; i < entitiesToRemove.size(); i++) {
+            Entity entity = entitiesToRemove.get(i);
+            // Added back before this commit, or already handled by an earlier entry
+            if (!entity.pendingRemoval) continue;
+            if (entity.manager == this) {
+                for (int q = 0; q < queries.size(); q++) {
+                    queries.get(q).remove(entity);
+                }
+                entity.manager = null;
+            }
+            if (!stableOrder && entity.listIndex != -1) {
+                swapRemove(entity);
+            }
+            if (packedStorage != null) packedStorage.detach(entity);
+            entity.listIndex = -1;
+            entity.pendingRemoval = false;
+            releaseIndex(entity);
+            if (entity.pool != null) entity.pool.release(entity);
+        }
         entitiesToRemove.clear();
 
-        // Include additions
-        entities.addAll(entitiesToAdd);
+        // Include additions, skipping any that were removed again before this commit
+        if (entities instanceof ArrayList) {
+            ((ArrayList<Entity>) entities).ensureCapacity(entities.size() + entitiesToAdd.size());
+        }
+        for (int i = 0; i < entitiesToAdd.size(); i++) {
+            Entity entity = entitiesToAdd.get(i);
+            if (entity.index == -1) continue;
+            entity.listIndex = entities.size();
+            entities.add(entity);
+            if (packedStorage != null) packedStorage.attach(entity);
+            entity.manager = this;
+            onEntityChanged(entity);
+        }
         entitiesToAdd.clear();
     }
 
+    // O(1): the last entity moves into the removed entity's position
+    private void swapRemove(Entity entity) {
+        int last = entities.size() - 1;
+        Entity moved = entities.get(last);
+        entities.set(entity.listIndex, moved);
+        moved.listIndex = entity.listIndex;
+        entities.remove(last);
+    }
+
+    // One pass that drops every entity pending removal while keeping the others in order
+    private void compactEntities() {
+        int kept = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (entity.pendingRemoval) continue;
+            entity.listIndex = kept;
+            entities.set(kept++, entity);
+        }
+        entities.subList(kept, entities.size()).clear();
+    }
+
+    @Override
+    public boolean isStructural() {
+        return true;
+    }
+
+    @Override
+    public void collectCounters(FrameCounters counters) {
+        counters.entitiesProcessed += committedChanges;
+    }
+
     @Override
     public void shutdown() {
+        for (int q = 0; q < queries.size(); q++) {
+            queries.get(q).clear();
+        }
+        for (Entity entity : entities) {
+            entity.manager = null;
+            entity.listIndex = -1;
+            entity.pendingRemoval = false;
+            if (packedStorage != null) packedStorage.detach(entity);
+            releaseIndex(entity);
+        }
+        for (Entity entity : entitiesToAdd) {
+            entity.pendingRemoval = false;
+            releaseIndex(entity);
+        }
         entities.clear();
+        entitiesToAdd.clear();
+        entitiesToRemove.clear();
     }
 
+    // The entity gets its handle immediately; it joins getEntities() on the next update.
+    // Adding an entity whose removal is still pending cancels the removal instead.
     public void addEntity(Entity entity) {
+        if (entity.pendingRemoval && owns(entity)) {
+            entity.pendingRemoval = false;
+            return;
+        }
+        if (entity.index != -1) return;
+        allocateIndex(entity);
         entitiesToAdd.add(entity);
     }
 
+    // Repeated calls before the next update are ignored
     public void removeEntity(Entity entity) {
+        if (entity.pendingRemoval || !owns(entity)) return;
+        entity.pendingRemoval = true;
         entitiesToRemove.add(entity);
     }
 
+    // Queues a batch of entities; they are all committed in one pass on the next update
+    public void addEntities(Collection<? extends Entity> batch) {
+        if (entitiesToAdd instanceof ArrayList) {
+            ((ArrayList<Entity>) entitiesToAdd).ensureCapacity(entitiesToAdd.size() + batch.size());
+        }
+        for (Entity entity : batch) {
+            addEntity(entity);
+        }
+    }
+
+    public void removeEntities(Collection<? extends Entity> batch) {
+        if (entitiesToRemove instanceof ArrayList) {
+            ((ArrayList<Entity>) entitiesToRemove).ensureCapacity(entitiesToRemove.size() + batch.size());
+        }
+        for (Entity entity : batch) {
+            removeEntity(entity);
+        }
+    }
+
+    /**
+     * By default removals swap the last entity into the freed position, so getEntities()
+     * order changes as entities are removed. Stable order keeps insertion order instead,
+     * at the cost of one O(n) compaction pass on each update that removes something.
+     */
+    public void setStableOrder(boolean stableOrder) {
+        this.stableOrder = stableOrder;
+    }
+
+    public boolean isStableOrder() {
+        return stableOrder;
+    }
+
+    /**
+     * Registers a prefab for pooled spawning. Up to maxPoolSize despawned entities are
+     * kept for reuse, and prewarmCount of them are created up front.
+     */
+    public EntityPool registerPrefab(Prefab prefab, int prewarmCount, int maxPoolSize) {
+        EntityPool pool = pools.get(prefab);
+        if (pool == null) {
+            pool = new EntityPool(prefab, maxPoolSize);
+            pools.put(prefab, pool);
+        } else {
+            pool.setMaxSize(maxPoolSize);
+        }
+        pool.prewarm(prewarmCount);
+        return pool;
+    }
+
+    public EntityPool getPool(Prefab prefab) {
+        return pools.get(prefab);
+    }
+
+    // Reuses a despawned instance when one is free; like addEntity, it joins on the next update
+    public Entity spawn(Prefab prefab) {
+        EntityPool pool = pools.get(prefab);
+        if (pool == null) {
+            throw new IllegalArgumentException("Prefab not registered: " + prefab.getName());
+        }
+        Entity entity = pool.obtain();
+        addEntity(entity);
+        return entity;
+    }
+
+    // Removes the entity; spawned entities go back to their pool when the removal is committed
+    public void despawn(Entity entity) {
+        removeEntity(entity);
+    }
+
+    private boolean owns(Entity entity) {
+        return entity.index != -1 && entity.index < nextIndex && entitiesByIndex[entity.index] == entity;
+    }
+
+    /**
+     * Returns a live view of the active entities that have all of the given component
+     * types. Views are cached, so asking again for the same set returns the same view.
+     */
+    @SafeVarargs
+    public final EntityQuery query(Class<? extends Component>... types) {
+        int[] typeIds = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            typeIds[i] = ComponentType.of(types[i]);
+        }
+        Arrays.sort(typeIds);
+
+        for (int q = 0; q < queries.size(); q++) {
+            if (queries.get(q).hasTypes(typeIds)) return queries.get(q);
+        }
+
+        EntityQuery query = new EntityQuery(typeIds);
+        for (Entity entity : entities) {
+            if (query.matches(entity)) query.add(entity);
+        }
+        queries.add(query);
+        return query;
+    }
+
+    void onEntityChanged(Entity entity) {
+        for (int q = 0; q < queries.size(); q++) {
+            queries.get(q).refresh(entity);
+        }
+    }
+
+    // Returns null if the handle is stale or was never issued by this manager
+    public Entity getEntity(int handle) {
+        if (handle < 0) return null;
+        int index = handle & INDEX_MASK;
+        if (index >= nextIndex || generations[index] != handle >>> INDEX_BITS) return null;
+        return entitiesByIndex[index];
+    }
+
+    public boolean isAlive(int handle) {
+        return getEntity(handle) != null;
+    }
+
+    static int handle(int index, int generation) {
+        return (generation << INDEX_BITS) | index;
+    }
+
     public int getEntityCount() {
         return entities.size();
     }
@@ -49,4 +293,56 @@ public class EntityManager implements IManager {
     public List<Entity> getEntities() {
         return entities;
     }
+
+    public boolean isPacked() {
+        return packedStorage != null;
+    }
+
+    // Null unless the manager was created in packed mode
+    public PackedStorage getPackedStorage() {
+        return packedStorage;
+    }
+
+    private void allocateIndex(Entity entity) {
+        int index;
+        if (freeCount > MIN_FREE_INDICES || (freeCount > 0 && nextIndex == MAX_ENTITIES)) {
+            index = freeIndices[freeHead];
+            freeHead = (freeHead + 1) & (freeIndices.length - 1);
+            freeCount--;
+        } else {
+            if (nextIndex == MAX_ENTITIES) {
+                throw new IllegalStateException("Entity limit of " + MAX_ENTITIES + " reached");
+            }
+            if (nextIndex == entitiesByIndex.length) {
+                entitiesByIndex = Arrays.copyOf(entitiesByIndex, nextIndex * 2);
+                generations = Arrays.copyOf(generations, nextIndex * 2);
+            }
+            index = nextIndex++;
+        }
+        entitiesByIndex[index] = entity;
+        entity.index = index;
+        entity.generation = generations[index];
+    }
+
+    private void releaseIndex(Entity entity) {
+        int index = entity.index;
+        if (index == -1 || entitiesByIndex[index] != entity) return;
+
+        // Bumping the generation invalidates every handle still pointing at this index
+        generations[index] = (generations[index] + 1) & GENERATION_MASK;
+        entitiesByIndex[index] = null;
+        entity.index = -1;
+
+        if (freeCount == freeIndices.length) {
+            // Unwrap the ring into the front of the larger array
+            int[] grown = new int[freeCount * 2];
+            int tail = freeCount - freeHead;
+            System.arraycopy(freeIndices, freeHead, grown, 0, tail);
+            System.arraycopy(freeIndices, 0, grown, tail, freeHead);
+            freeIndices = grown;
+            freeHead = 0;
+        }
+        freeIndices[(freeHead + freeCount) & (freeIndices.length - 1)] = index;
+        freeCount++;
+    }
 }
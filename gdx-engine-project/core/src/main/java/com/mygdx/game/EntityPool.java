@@ -0,0 +1,122 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/** Recycled entities for one Prefab, with hit and miss counters for monitoring. */
+public class EntityPool {
+    private final Prefab prefab;
+    private Entity[] free;
+    private int freeCount;
+    private int maxSize;
+    private long hits;
+    private long misses;
+
+    EntityPool(Prefab prefab, int maxSize) {
+        this.prefab = prefab;
+        this.maxSize = maxSize;
+        this.free = new Entity[Math.max(Math.min(maxSize, 64), 1)];
+    }
+
+    public void prewarm(int count) {
+        while (freeCount < Math.min(count, maxSize)) {
+            Entity entity = prefab.instantiate();
+            detachComponents(entity);
+            push(entity);
+        }
+    }
+
+    Entity obtain() {
+        Entity entity;
+        if (freeCount > 0) {
+            hits++;
+            entity = free[--freeCount];
+            free[freeCount] = null;
+            prefab.reset(entity);
+            rejoinCollision(entity);
+        } else {
+            misses++;
+            entity = prefab.instantiate();
+        }
+        entity.pool = this;
+        return entity;
+    }
+
+    // Called once the entity's removal has been committed
+    void release(Entity entity) {
+        entity.pool = null;
+        leaveCollision(entity, freeCount < maxSize);
+        if (freeCount == maxSize) return;
+
+        detachComponents(entity);
+        push(entity);
+    }
+
+    private void detachComponents(Entity entity) {
+        Component[] components = entity.getComponents();
+        for (int typeId = 0; typeId < components.length; typeId++) {
+            Component component = components[typeId];
+            if (component == null) continue;
+            if (prefab.hasType(typeId)) {
+                // Kept in the entity for reuse; reattached on the next spawn
+                component.onDetach();
+            } else {
+                entity.removeComponent(component.getClass());
+            }
+        }
+    }
+
+    // A detached collider left registered would report null bounds, so it sits out while pooled
+    private void leaveCollision(Entity entity, boolean pooled) {
+        CollisionComponent collision = entity.getComponent(CollisionComponent.class);
+        if (collision == null || collision.manager == null) return;
+        CollisionManager manager = collision.manager;
+        manager.removeCollisionComponent(collision);
+        collision.pooledManager = pooled ? manager : null;
+    }
+
+    private void rejoinCollision(Entity entity) {
+        CollisionComponent collision = entity.getComponent(CollisionComponent.class);
+        if (collision == null || collision.pooledManager == null) return;
+        collision.pooledManager.addCollisionComponent(collision);
+        collision.pooledManager = null;
+    }
+
+    private void push(Entity entity) {
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, Math.min(free.length * 2, maxSize));
+        }
+        free[freeCount++] = entity;
+    }
+
+    public Prefab getPrefab() {
+        return prefab;
+    }
+
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        while (freeCount > maxSize) {
+            free[--freeCount] = null;
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Live view of the active entities that have every requested component type.
+ * EntityManager keeps it up to date as entities are committed or removed, gain or
+ * lose components, or are activated and deactivated. Membership order is not stable:
+ * leaving the view swaps the last member into the hole. Iterate with size() and get(i),
+ * and don't add or remove components on members while iterating.
+ */
+public class EntityQuery {
+    private final int[] typeIds;
+    private Entity[] members = new Entity[64];
+    private int size;
+
+    // Position + 1 of each entity in members, indexed by entity index; 0 means absent
+    private int[] positions = new int[64];
+
+    EntityQuery(int[] typeIds) {
+        this.typeIds = typeIds;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Entity get(int i) {
+        return members[i];
+    }
+
+    public boolean contains(Entity entity) {
+        return entity.index != -1 && entity.index < positions.length && positions[entity.index] != 0;
+    }
+
+    boolean hasTypes(int[] otherTypeIds) {
+        return Arrays.equals(typeIds, otherTypeIds);
+    }
+
+    boolean matches(Entity entity) {
+        if (!entity.isActive()) return false;
+        Component[] components = entity.getComponents();
+        for (int typeId : typeIds) {
+            if (typeId >= components.length || components[typeId] == null) return false;
+        }
+        return true;
+    }
+
+    // Re-evaluates a single entity after something about it changed
+    void refresh(Entity entity) {
+        boolean present = contains(entity);
+        if (matches(entity)) {
+            if (!present) add(entity);
+        } else if (present) {
+            remove(entity);
+        }
+    }
+
+    void add(Entity entity) {
+        if (size == members.length) {
+            members = Arrays.copyOf(members, size * 2);
+        }
+        if (entity.index >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(entity.index + 1, positions.length * 2));
+        }
+        members[size++] = entity;
+        positions[entity.index] = size;
+    }
+
+    void remove(Entity entity) {
+        if (!contains(entity)) return;
+
+        int position = positions[entity.index] - 1;
+        Entity last = members[--size];
+        members[position] = last;
+        positions[last.index] = position + 1;
+        members[size] = null;
+        positions[entity.index] = 0;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[members[i].index] = 0;
+            members[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,7 @@
+package com.mygdx.game;
+
+/** An event slot in an EventQueue. Slots are reused, so subscribers must not keep them. */
+public interface Event {
+    // Called once every subscriber has seen the event; drop references so the slot doesn't pin them
+    void reset();
+}
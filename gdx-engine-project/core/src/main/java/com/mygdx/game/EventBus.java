@@ -0,0 +1,113 @@
+package com.mygdx.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One EventQueue per event type, dispatched together once per tick. The bus declares no
+ * component reads or writes, so SystemScheduler runs it on its own after every manager
+ * registered before it; subscribers can touch any component from there. Register it
+ * after CollisionManager to handle the collision events of the same tick. Producers
+ * should look their queue up once and keep it, since publishing through the queue
+ * doesn't go through the map.
+ */
+public class EventBus implements IManager {
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private final Map<Class<? extends Event>, EventQueue<?>> queuesByType = new HashMap<>();
+    private final List<EventQueue<?>> queues = new ArrayList<>();
+
+    // Work done by the last update, reported through collectCounters
+    private long lastDelivered;
+    private long delivered;
+
+    public <E extends Event> EventQueue<E> register(Class<E> type, EventQueue.Factory<? extends E> factory) {
+        return register(type, factory, DEFAULT_CAPACITY);
+    }
+
+    // Queues are dispatched in registration order; events past capacity are dropped until the next dispatch
+    public <E extends Event> EventQueue<E> register(Class<E> type, EventQueue.Factory<? extends E> factory,
+                                                    int capacity) {
+        if (queuesByType.containsKey(type)) {
+            throw new IllegalArgumentException("Event type already registered: " + type.getSimpleName());
+        }
+        EventQueue<E> queue = new EventQueue<>(factory, capacity);
+        queuesByType.put(type, queue);
+        queues.add(queue);
+        return queue;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <E extends Event> EventQueue<E> getQueue(Class<E> type) {
+        EventQueue<E> queue = (EventQueue<E>) queuesByType.get(type);
+        if (queue == null) {
+            throw new IllegalArgumentException("Event type not registered: " + type.getSimpleName());
+        }
+        return queue;
+    }
+
+    public <E extends Event> void subscribe(Class<E> type, EventSubscriber<? super E> subscriber) {
+        getQueue(type).subscribe(subscriber);
+    }
+
+    public <E extends Event> void unsubscribe(Class<E> type, EventSubscriber<? super E> subscriber) {
+        getQueue(type).unsubscribe(subscriber);
+    }
+
+    @Override
+    public void initialize() { }
+
+    @Override
+    public void update(float deltaTime) {
+        dispatch();
+    }
+
+    // Dispatches every queue once; returns the number of events dispatched
+    public int dispatch() {
+        int count = 0;
+        for (int i = 0; i < queues.size(); i++) {
+            count += queues.get(i).dispatch();
+        }
+        long total = getDeliveredCount();
+        lastDelivered = total - delivered;
+        delivered = total;
+        return count;
+    }
+
+    @Override
+    public void shutdown() {
+        // Hand over whatever is still queued so subscribers see every event published
+        dispatch();
+    }
+
+    @Override
+    public void collectCounters(FrameCounters counters) {
+        counters.callbacksDispatched += lastDelivered;
+    }
+
+    public long getDeliveredCount() {
+        long total = 0;
+        for (int i = 0; i < queues.size(); i++) {
+            total += queues.get(i).getDeliveredCount();
+        }
+        return total;
+    }
+
+    public long getDispatchedCount() {
+        long total = 0;
+        for (int i = 0; i < queues.size(); i++) {
+            total += queues.get(i).getDispatchedCount();
+        }
+        return total;
+    }
+
+    public long getDroppedCount() {
+        long total = 0;
+        for (int i = 0; i < queues.size(); i++) {
+            total += queues.get(i).getDroppedCount();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,177 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ring of preallocated event slots that any thread can publish to and that is dispatched
+ * in batches. A producer claims a sequence number with a compare-and-set, fills the slot
+ * returned by get() and publishes it:
+ *
+ *     long sequence = queue.claim();
+ *     if (sequence >= 0) {
+ *         queue.get(sequence).set(...);
+ *         queue.publish(sequence);
+ *     }
+ *
+ * dispatch() hands every published event, up to the first slot still being filled, to
+ * each subscriber in turn; each subscriber receives the whole batch before the next one
+ * starts. Events published during a dispatch wait for the next one. Subscribers only
+ * ever run inside dispatch(); when all slots are waiting, new events are dropped and
+ * counted, and getPeakSize() shows how much capacity a scene needs.
+ */
+public class EventQueue<E extends Event> {
+    public interface Factory<E> {
+        E create();
+    }
+
+    private static final EventSubscriber<?>[] NO_SUBSCRIBERS = new EventSubscriber<?>[0];
+
+    private final E[] slots;
+    private final int mask;
+    // Sequence held by each slot once published; a slot is ready when it matches the sequence read
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    // Replaced rather than modified, so a subscriber can subscribe or unsubscribe during dispatch
+    @SuppressWarnings("unchecked")
+    private volatile EventSubscriber<? super E>[] subscribers = (EventSubscriber<? super E>[]) NO_SUBSCRIBERS;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private long dispatched;
+    private long delivered;
+    private int peakSize;
+
+    // Capacity is rounded up to a power of two
+    @SuppressWarnings("unchecked")
+    public EventQueue(Factory<? extends E> factory, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = (E[]) new Event[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.create();
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    // Reserves the next slot for the calling thread, or returns -1 if the event was dropped
+    public long claim() {
+        while (true) {
+            long sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.incrementAndGet();
+                return -1;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    // The slot for a claimed sequence; only the claiming thread may write it until publish
+    public E get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    public void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence);
+    }
+
+    // Delivers the ready events to every subscriber; returns how many were dispatched
+    public int dispatch() {
+        dispatchLock.lock();
+        try {
+            long start = consumed;
+            long end = start;
+            long limit = claimed.get();
+            while (end < limit && published.get((int) end & mask) == end) {
+                end++;
+            }
+            int count = (int) (end - start);
+            if (count == 0) return 0;
+            peakSize = Math.max(peakSize, count);
+
+            EventSubscriber<? super E>[] targets = subscribers;
+            try {
+                for (int s = 0; s < targets.length; s++) {
+                    EventSubscriber<? super E> subscriber = targets[s];
+                    for (long sequence = start; sequence < end; sequence++) {
+                        subscriber.onEvent(slots[(int) sequence & mask]);
+                    }
+                    subscriber.onBatchEnd();
+                    delivered += count;
+                }
+            } finally {
+                // A throwing subscriber loses the rest of the batch rather than seeing it again
+                for (long sequence = start; sequence < end; sequence++) {
+                    slots[(int) sequence & mask].reset();
+                }
+                dispatched += count;
+                consumed = end;
+            }
+            return count;
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    public synchronized void subscribe(EventSubscriber<? super E> subscriber) {
+        EventSubscriber<? super E>[] current = subscribers;
+        EventSubscriber<? super E>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = subscriber;
+        subscribers = next;
+    }
+
+    public synchronized void unsubscribe(EventSubscriber<? super E> subscriber) {
+        EventSubscriber<? super E>[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscriber) {
+                EventSubscriber<? super E>[] next = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                subscribers = next;
+                return;
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.length;
+    }
+
+    // Claimed but not yet dispatched; approximate while producers are running
+    public int size() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getDispatchedCount() {
+        return dispatched;
+    }
+
+    // Subscriber calls made, one per event per subscriber
+    public long getDeliveredCount() {
+        return delivered;
+    }
+
+    // Largest batch dispatched so far, for sizing the capacity
+    public int getPeakSize() {
+        return peakSize;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mygdx.game;
+
+public interface EventSubscriber<E extends Event> {
+    // The event is only valid during the call; copy what you need
+    void onEvent(E event);
+
+    // Called after the last event of each batch, for work that can be done once per batch
+    default void onBatchEnd() { }
+}
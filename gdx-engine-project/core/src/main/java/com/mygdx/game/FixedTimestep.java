@@ -0,0 +1,66 @@
+package com.mygdx.game;
+
+/**
+ * Accumulator for running the simulation at a fixed tick rate independent of the
+ * display frame rate. Each frame, advance() reports how many fixed steps to run.
+ * Steps are capped per frame so a long frame can't snowball into ever longer ones;
+ * time beyond the cap is dropped. getAlpha() is how far the leftover time reaches
+ * into the next step, for interpolating transforms when rendering.
+ */
+public class FixedTimestep {
+    private final float stepSize;
+    private final int maxStepsPerFrame;
+    private double accumulator;
+    private float alpha;
+    private long ticks;
+    private double droppedTime;
+
+    public FixedTimestep(float ticksPerSecond, int maxStepsPerFrame) {
+        if (ticksPerSecond <= 0 || maxStepsPerFrame <= 0) {
+            throw new IllegalArgumentException("Tick rate and max steps must be positive");
+        }
+        this.stepSize = 1f / ticksPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    // Adds the frame's elapsed time and returns the number of fixed steps to simulate
+    public int advance(float frameDelta) {
+        accumulator += frameDelta;
+
+        int steps = 0;
+        while (accumulator >= stepSize && steps < maxStepsPerFrame) {
+            accumulator -= stepSize;
+            steps++;
+        }
+        if (accumulator >= stepSize) {
+            // Behind by more than the cap allows; drop whole steps rather than catch up later
+            double excess = accumulator - accumulator % stepSize;
+            droppedTime += excess;
+            accumulator -= excess;
+        }
+
+        ticks += steps;
+        alpha = (float) (accumulator / stepSize);
+        return steps;
+    }
+
+    public float getStepSize() {
+        return stepSize;
+    }
+
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public double getDroppedTime() {
+        return droppedTime;
+    }
+}
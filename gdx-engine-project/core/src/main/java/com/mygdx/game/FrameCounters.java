@@ -0,0 +1,39 @@
+package com.mygdx.game;
+
+/** Work a manager did in its last update, filled in by IManager.collectCounters. */
+public class FrameCounters {
+    public long entitiesProcessed;
+    public long entitiesSleeping;
+    public long pairsTested;
+    public long pairsOverlapped;
+    public long callbacksDispatched;
+    // Filled in by the profiler when it has an AllocationTracker; covers the updating thread only
+    public long bytesAllocated;
+
+    public void clear() {
+        entitiesProcessed = 0;
+        entitiesSleeping = 0;
+        pairsTested = 0;
+        pairsOverlapped = 0;
+        callbacksDispatched = 0;
+        bytesAllocated = 0;
+    }
+
+    public void add(FrameCounters other) {
+        entitiesProcessed += other.entitiesProcessed;
+        entitiesSleeping += other.entitiesSleeping;
+        pairsTested += other.pairsTested;
+        pairsOverlapped += other.pairsOverlapped;
+        callbacksDispatched += other.callbacksDispatched;
+        bytesAllocated += other.bytesAllocated;
+    }
+
+    public void set(FrameCounters other) {
+        entitiesProcessed = other.entitiesProcessed;
+        entitiesSleeping = other.entitiesSleeping;
+        pairsTested = other.pairsTested;
+        pairsOverlapped = other.pairsOverlapped;
+        callbacksDispatched = other.callbacksDispatched;
+        bytesAllocated = other.bytesAllocated;
+    }
+}
@@ -0,0 +1,214 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Times every manager update run by a SystemScheduler and keeps a latency histogram
+ * and the last tick's counters per manager. Recording allocates nothing. Snapshots and
+ * dumps copy the data out and may allocate.
+ * While disabled the scheduler only checks a flag, so a profiler can stay attached in
+ * release builds.
+ */
+public class FrameProfiler {
+    public enum DumpFormat { CSV, JSON }
+
+    private volatile boolean enabled;
+    private AllocationTracker allocationTracker;
+    private final List<Section> sections = new ArrayList<>();
+    private final LatencyHistogram tickHistogram = new LatencyHistogram();
+    private final FrameCounters tickCounters = new FrameCounters();
+    private long tickStart;
+    private long lastTickNanos;
+    private long tick;
+
+    // Periodic dumps append a row per section every interval ticks, then start a new window
+    private Path dumpPath;
+    private DumpFormat dumpFormat;
+    private int dumpInterval;
+    private long ticksSinceDump;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public AllocationTracker getAllocationTracker() {
+        return allocationTracker;
+    }
+
+    // With a tracker, each section also records the bytes its update allocated
+    public void setAllocationTracker(AllocationTracker allocationTracker) {
+        this.allocationTracker = allocationTracker;
+    }
+
+    // Returns the section for a manager, creating it on first use
+    public Section section(IManager manager) {
+        for (int i = 0; i < sections.size(); i++) {
+            if (sections.get(i).manager == manager) return sections.get(i);
+        }
+        Section section = new Section(this, manager);
+        sections.add(section);
+        return section;
+    }
+
+    public List<Section> getSections() {
+        return Collections.unmodifiableList(sections);
+    }
+
+    public LatencyHistogram getTickHistogram() {
+        return tickHistogram;
+    }
+
+    // Counters summed over every manager that ran in the last tick
+    public FrameCounters getTickCounters() {
+        return tickCounters;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public void setPeriodicDump(Path path, DumpFormat format, int intervalTicks) {
+        if (path != null && intervalTicks <= 0) {
+            throw new IllegalArgumentException("Dump interval must be positive: " + intervalTicks);
+        }
+        this.dumpPath = path;
+        this.dumpFormat = format;
+        this.dumpInterval = intervalTicks;
+        this.ticksSinceDump = 0;
+    }
+
+    void beginTick(long tick) {
+        this.tick = tick;
+        tickStart = System.nanoTime();
+    }
+
+    void endTick() {
+        lastTickNanos = System.nanoTime() - tickStart;
+        tickHistogram.record(lastTickNanos);
+
+        tickCounters.clear();
+        for (int i = 0; i < sections.size(); i++) {
+            Section section = sections.get(i);
+            if (section.lastTick == tick) {
+                tickCounters.add(section.counters);
+            }
+        }
+
+        if (dumpPath != null && ++ticksSinceDump >= dumpInterval) {
+            ticksSinceDump = 0;
+            dumpPeriodic();
+        }
+    }
+
+    public void reset() {
+        tickHistogram.reset();
+        for (int i = 0; i < sections.size(); i++) {
+            sections.get(i).histogram.reset();
+        }
+    }
+
+    public ProfilerSnapshot snapshot() {
+        List<ProfilerSnapshot.Stats> stats = new ArrayList<>(sections.size() + 1);
+        stats.add(new ProfilerSnapshot.Stats("tick", tickHistogram, lastTickNanos, tickCounters));
+        for (int i = 0; i < sections.size(); i++) {
+            Section section = sections.get(i);
+            stats.add(new ProfilerSnapshot.Stats(section.name, section.histogram, section.lastNanos, section.counters));
+        }
+        return new ProfilerSnapshot(tick, stats);
+    }
+
+    public void dump(Path path, DumpFormat format) throws IOException {
+        boolean fresh = !Files.exists(path) || Files.size(path) == 0;
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            ProfilerSnapshot snapshot = snapshot();
+            if (format == DumpFormat.JSON) {
+                snapshot.writeJson(writer);
+            } else {
+                snapshot.writeCsv(writer, fresh);
+            }
+        }
+    }
+
+    private void dumpPeriodic() {
+        try {
+            dump(dumpPath, dumpFormat);
+        } catch (IOException e) {
+            // Losing the profile shouldn't take the game down; stop dumping and say why
+            System.err.println("Profiler dump to " + dumpPath + " failed, periodic dumps disabled: " + e);
+            dumpPath = null;
+        }
+        reset();
+    }
+
+    /** Timing and counters for one manager. */
+    public static class Section {
+        private final FrameProfiler profiler;
+        private final IManager manager;
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final FrameCounters counters = new FrameCounters();
+        private long lastNanos;
+        private long lastTick = -1;
+        private long startNanos;
+        private long startBytes;
+
+        Section(FrameProfiler profiler, IManager manager) {
+            this.profiler = profiler;
+            this.manager = manager;
+            this.name = manager.getClass().getSimpleName();
+        }
+
+        boolean isEnabled() {
+            return profiler.enabled;
+        }
+
+        // begin and end run on the thread doing the update; sections are never shared between threads in a tick
+        void begin() {
+            AllocationTracker tracker = profiler.allocationTracker;
+            startBytes = tracker != null ? tracker.getAllocatedBytes() : 0;
+            startNanos = System.nanoTime();
+        }
+
+        void end() {
+            long nanos = System.nanoTime() - startNanos;
+            AllocationTracker tracker = profiler.allocationTracker;
+            long bytes = tracker != null ? tracker.allocatedSince(startBytes) : 0;
+
+            lastNanos = nanos;
+            lastTick = profiler.tick;
+            histogram.record(nanos);
+            counters.clear();
+            manager.collectCounters(counters);
+            counters.bytesAllocated = bytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        public FrameCounters getCounters() {
+            return counters;
+        }
+
+        public long getLastNanos() {
+            return lastNanos;
+        }
+    }
+}
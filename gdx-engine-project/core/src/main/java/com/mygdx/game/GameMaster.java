@@ -1,8 +1,31 @@
 package com.mygdx.game;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class GameMaster extends ApplicationAdapter{
+    // Simulation runs at a fixed 30 Hz regardless of the display rate
+    private static final float TICKS_PER_SECOND = 30f;
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    private static final String REPLAY_TAG = "Replay";
+
+    private FixedTimestep timestep;
+    private SystemScheduler scheduler;
+
+    // Launch with -Dprofiler=true to time each manager and draw the overlay
+    private FrameProfiler profiler;
+    private ProfilerOverlay profilerOverlay;
+    private IOManager ioManager;
+
+    // Launch with -Dreplay.record=<file> to log every tick's input and state checksum, or
+    // -Dreplay.play=<file> to feed a log back in place of live input and check the checksums
+    private ReplayRecorder replayRecorder;
+    private ReplayReader replayReader;
+    private ReplayInputManager replayInput;
+    private final InputSnapshot replaySnapshot = new InputSnapshot();
+    private boolean replayDiverged;
+
     private EntityManager entityManager;
     private MovementManager movementManager;
     private CollisionManager collisionManager;
@@ -13,6 +36,7 @@ public class GameMaster extends ApplicationAdapter{
 
     @Override
     public void create() {
+        timestep = new FixedTimestep(TICKS_PER_SECOND, MAX_STEPS_PER_FRAME);
         entityManager = new EntityManager();
         movementManager = new MovementManager(entityManager);
         collisionManager = new CollisionManager();
@@ -32,35 +56,131 @@ public class GameMaster extends ApplicationAdapter{
         entityManager.addEntity(stationaryEntity);
 
         // Add collision components to CollisionManager
-        collisionManager.addCollisionComponent(
-            (CollisionComponent) movingEntity.getComponent(CollisionComponent.class));
-        collisionManager.addCollisionComponent(
-            (CollisionComponent) stationaryEntity.getComponent(CollisionComponent.class));
+        collisionManager.addCollisionComponent(movingEntity.getComponent(CollisionComponent.class));
+        collisionManager.addCollisionComponent(stationaryEntity.getComponent(CollisionComponent.class));
 
         movementManager.addMovementStrategy(new BasicMovementStrategy());
+
+        // Call order comes from each manager's declared reads and writes
+        scheduler = new SystemScheduler();
+        scheduler.register(entityManager);
+        scheduler.register(movementManager);
+        scheduler.register(collisionManager);
+
+        ioManager = new IOManager();
+        if (Boolean.getBoolean("profiler")) {
+            profiler = new FrameProfiler();
+            profiler.setEnabled(true);
+            profiler.setAllocationTracker(new AllocationTracker());
+            scheduler.setProfiler(profiler);
+            profilerOverlay = new ProfilerOverlay(profiler);
+        }
+        openReplay(System.getProperty("replay.record"), System.getProperty("replay.play"));
+    }
+
+    private void openReplay(String recordPath, String playPath) {
+        try {
+            if (playPath != null) {
+                replayReader = new ReplayReader(Paths.get(playPath));
+                replayInput = new ReplayInputManager();
+                ioManager.setInput(replayInput);
+            } else if (recordPath != null) {
+                replayRecorder = new ReplayRecorder(Paths.get(recordPath));
+            }
+        } catch (IOException e) {
+            Gdx.app.error(REPLAY_TAG, "Replay unavailable, running on live input", e);
+        }
     }
 
     @Override
     public void render() {
-        float deltaTime = Gdx.graphics.getDeltaTime();
+        // Frames that don't cross a tick boundary skip the simulation entirely
+        int steps = timestep.advance(Gdx.graphics.getDeltaTime());
+        float stepSize = timestep.getStepSize();
+        for (int i = 0; i < steps; i++) {
+            step(stepSize);
+        }
+        // Sprites drawn here should use getInterpolatedX/Y(timestep.getAlpha()) to smooth between ticks
 
-        entityManager.update(deltaTime);
-        movementManager.update(deltaTime);
-        collisionManager.update(deltaTime);
+        if (profilerOverlay != null) {
+            OutputManager output = ioManager.getOutput();
+            output.begin();
+            profilerOverlay.draw(output, 10, Gdx.graphics.getHeight() - 10);
+            output.end();
+        }
 
-        TransformComponent transform = (TransformComponent) movingEntity.getComponent(TransformComponent.class);
+        TransformComponent transform = movingEntity.getComponent(TransformComponent.class);
 
         // Only print when collision is first detected
-        if (!collisionDetected && transform.positionX >= 40) {
-            System.out.println("COLLISION DETECTED at x: " + transform.positionX);
+        if (!collisionDetected && transform.getPositionX() >= 40) {
+            System.out.println("COLLISION DETECTED at x: " + transform.getPositionX());
             collisionDetected = true;
         }
     }
 
+    private void step(float stepSize) {
+        if (replayReader != null) {
+            playStep();
+            return;
+        }
+        if (replayRecorder != null) {
+            ioManager.getInput().capture(replaySnapshot);
+        }
+        scheduler.tick(stepSize);
+        if (replayRecorder != null) {
+            try {
+                replayRecorder.record(stepSize, replaySnapshot, StateChecksum.compute(entityManager));
+            } catch (IOException e) {
+                Gdx.app.error(REPLAY_TAG, "Replay recording failed, stopped", e);
+                closeReplay();
+            }
+        }
+    }
+
+    // Replayed ticks use the recorded delta; the display rate only decides how many run per frame
+    private void playStep() {
+        try {
+            if (!replayReader.next(replaySnapshot)) {
+                Gdx.app.log(REPLAY_TAG, "Replay finished after " + replayReader.getTicks() + " ticks"
+                    + (replayDiverged ? ", state diverged" : ""));
+                closeReplay();
+                ioManager.setInput(new InputManager());
+                return;
+            }
+            replayInput.setSnapshot(replaySnapshot);
+            scheduler.tick(replayReader.getDeltaTime());
+            if (!replayDiverged && replayReader.hasChecksum()
+                    && StateChecksum.compute(entityManager) != replayReader.getChecksum()) {
+                Gdx.app.error(REPLAY_TAG, "Replay diverged from the recording at tick " + (replayReader.getTicks() - 1));
+                replayDiverged = true;
+            }
+        } catch (IOException e) {
+            Gdx.app.error(REPLAY_TAG, "Replay playback failed, stopped", e);
+            closeReplay();
+            ioManager.setInput(new InputManager());
+        }
+    }
+
+    private void closeReplay() {
+        try {
+            if (replayRecorder != null) replayRecorder.close();
+            if (replayReader != null) replayReader.close();
+        } catch (IOException e) {
+            Gdx.app.error(REPLAY_TAG, "Closing the replay log failed", e);
+        }
+        replayRecorder = null;
+        replayReader = null;
+    }
+
     @Override
     public void dispose() {
+        closeReplay();
         entityManager.shutdown();
         movementManager.shutdown();
         collisionManager.shutdown();
+        if (profilerOverlay != null) {
+            profilerOverlay.dispose();
+        }
+        ioManager.shutdown();
     }
 }
@@ -0,0 +1,34 @@
+package com.mygdx.game;
+
+/** Accelerates every moving entity by a constant; register before the integrating strategy. */
+public class GravityMovementStrategy implements MovementStrategy, BatchMovementStrategy {
+    private final float gravityX;
+    private final float gravityY;
+
+    public GravityMovementStrategy(float gravityX, float gravityY) {
+        this.gravityX = gravityX;
+        this.gravityY = gravityY;
+    }
+
+    @Override
+    public void applyMovement(TransformComponent transform, PhysicsComponent physics, float deltaTime) {
+        physics.setVelocity(physics.getVelocityX() + gravityX * deltaTime, physics.getVelocityY() + gravityY * deltaTime);
+    }
+
+    @Override
+    public void applyMovement(MovementBatch batch, int from, int to, float deltaTime) {
+        float[] velocityX = batch.velocityX;
+        float[] velocityY = batch.velocityY;
+        float dvx = gravityX * deltaTime;
+        float dvy = gravityY * deltaTime;
+        for (int i = from; i < to; i++) {
+            velocityX[i] += dvx;
+            velocityY[i] += dvy;
+        }
+    }
+
+    @Override
+    public boolean isParallelSafe() {
+        return true;
+    }
+}
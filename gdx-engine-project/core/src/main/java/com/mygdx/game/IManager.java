@@ -1,7 +1,45 @@
 package com.mygdx.game;
 
+import java.util.Collections;
+import java.util.Set;
+
 public interface IManager {
     void initialize();
     void update(float deltaTime);
     void shutdown();
+
+    // --- Scheduling metadata, used by SystemScheduler ---
+
+    // Component types read during update; managers declaring nothing run on their own
+    default Set<Class<? extends Component>> getReadTypes() {
+        return Collections.emptySet();
+    }
+
+    // Component types written during update
+    default Set<Class<? extends Component>> getWriteTypes() {
+        return Collections.emptySet();
+    }
+
+    // Lower values are ordered first when two managers conflict
+    default int getPriority() {
+        return 0;
+    }
+
+    // Registered managers of these types finish before this one starts, whatever their priority
+    default Set<Class<? extends IManager>> getRunsAfter() {
+        return Collections.emptySet();
+    }
+
+    // Run every N ticks, receiving the elapsed time of all N
+    default int getUpdateInterval() {
+        return 1;
+    }
+
+    // Structural managers add or remove entities and run alone at the start of each tick
+    default boolean isStructural() {
+        return false;
+    }
+
+    // Adds the work done in the last update to the profiler's counters
+    default void collectCounters(FrameCounters counters) { }
 }
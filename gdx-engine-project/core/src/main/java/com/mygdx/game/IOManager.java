@@ -1,26 +1,40 @@
 package com.mygdx.game;
 
+/**
+ * Input, output and audio are created on first use, so a simulation that never asks
+ * for them runs without a window, GL context or audio device.
+ */
 public class IOManager implements IManager {
 
     private InputManager input;
     private OutputManager output;
     private AudioManager audio;
 
-    public IOManager() {
-        this.input = new InputManager();
-        this.output = new OutputManager();
-        this.audio = new AudioManager();
-    }
+    public IOManager() { }
 
     public InputManager getInput() {
+        if (input == null) {
+            input = new InputManager();
+        }
         return input;
     }
 
+    // Swaps in another source of input, e.g. a ReplayInputManager to play back a recording
+    public void setInput(InputManager input) {
+        this.input = input;
+    }
+
     public OutputManager getOutput() {
+        if (output == null) {
+            output = new OutputManager();
+        }
         return output;
     }
 
     public AudioManager getAudio() {
+        if (audio == null) {
+            audio = new AudioManager();
+        }
         return audio;
     }
 
@@ -32,7 +46,11 @@ public class IOManager implements IManager {
 
     @Override
     public void shutdown() {
-        output.dispose();
-        audio.dispose();
+        if (output != null) {
+            output.dispose();
+        }
+        if (audio != null) {
+            audio.dispose();
+        }
     }
-}
\ No newline at end of file
+}
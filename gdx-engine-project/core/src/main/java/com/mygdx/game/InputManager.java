@@ -12,7 +12,33 @@ public class InputManager {
         return Gdx.input.isKeyJustPressed(key);
     }
 
+    public boolean isButtonPressed(int button) {
+        return Gdx.input.isButtonPressed(button);
+    }
+
     public Vector2 getMousePosition() {
-        return new Vector2(Gdx.input.getX(), Gdx.input.getY());
+        return getMousePosition(new Vector2());
+    }
+
+    // Writes into out instead of allocating, for code that polls every frame
+    public Vector2 getMousePosition(Vector2 out) {
+        out.set(Gdx.input.getX(), Gdx.input.getY());
+        return out;
+    }
+
+    // Polls every key, button and the mouse position into out, for ReplayRecorder
+    public InputSnapshot capture(InputSnapshot out) {
+        out.clear();
+        for (int key = 0; key < InputSnapshot.KEY_COUNT; key++) {
+            if (isKeyPressed(key)) out.setKeyPressed(key, true);
+            if (isKeyJustPressed(key)) out.setKeyJustPressed(key, true);
+        }
+        int buttons = 0;
+        for (int button = 0; button < InputSnapshot.BUTTON_COUNT; button++) {
+            if (isButtonPressed(button)) buttons |= 1 << button;
+        }
+        out.setButtons(buttons);
+        out.setMousePosition(Gdx.input.getX(), Gdx.input.getY());
+        return out;
     }
-}
\ No newline at end of file
+}
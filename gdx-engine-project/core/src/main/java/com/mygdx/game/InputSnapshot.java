@@ -0,0 +1,132 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Input state for one tick: held and just-pressed keys as bitsets over the key codes,
+ * held mouse buttons as a bitmask, and the mouse position. Captured from the live
+ * InputManager when recording and fed to ReplayInputManager when replaying.
+ */
+public class InputSnapshot {
+    public static final int KEY_COUNT = 256;
+    public static final int BUTTON_COUNT = 5;
+
+    private final long[] pressed = new long[KEY_COUNT / 64];
+    private final long[] justPressed = new long[KEY_COUNT / 64];
+    private int buttons;
+    private int mouseX;
+    private int mouseY;
+
+    public boolean isKeyPressed(int key) {
+        return key >= 0 && key < KEY_COUNT && (pressed[key >>> 6] & (1L << key)) != 0;
+    }
+
+    public boolean isKeyJustPressed(int key) {
+        return key >= 0 && key < KEY_COUNT && (justPressed[key >>> 6] & (1L << key)) != 0;
+    }
+
+    public void setKeyPressed(int key, boolean down) {
+        checkKey(key);
+        if (down) {
+            pressed[key >>> 6] |= 1L << key;
+        } else {
+            pressed[key >>> 6] &= ~(1L << key);
+        }
+    }
+
+    public void setKeyJustPressed(int key, boolean down) {
+        checkKey(key);
+        if (down) {
+            justPressed[key >>> 6] |= 1L << key;
+        } else {
+            justPressed[key >>> 6] &= ~(1L << key);
+        }
+    }
+
+    public boolean isButtonPressed(int button) {
+        return button >= 0 && button < BUTTON_COUNT && (buttons & (1 << button)) != 0;
+    }
+
+    public int getButtons() {
+        return buttons;
+    }
+
+    public void setButtons(int buttons) {
+        this.buttons = buttons & ((1 << BUTTON_COUNT) - 1);
+    }
+
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    public void setMousePosition(int mouseX, int mouseY) {
+        this.mouseX = mouseX;
+        this.mouseY = mouseY;
+    }
+
+    // Key codes held in this snapshot, in ascending order; returns how many were written
+    int pressedKeys(int[] out) {
+        return collect(pressed, out);
+    }
+
+    int justPressedKeys(int[] out) {
+        return collect(justPressed, out);
+    }
+
+    boolean samePressedKeys(InputSnapshot other) {
+        return Arrays.equals(pressed, other.pressed);
+    }
+
+    boolean hasJustPressedKeys() {
+        for (long word : justPressed) {
+            if (word != 0) return true;
+        }
+        return false;
+    }
+
+    void clearKeys() {
+        Arrays.fill(pressed, 0);
+        Arrays.fill(justPressed, 0);
+    }
+
+    void clearJustPressed() {
+        Arrays.fill(justPressed, 0);
+    }
+
+    public void clear() {
+        clearKeys();
+        buttons = 0;
+        mouseX = 0;
+        mouseY = 0;
+    }
+
+    public void set(InputSnapshot other) {
+        System.arraycopy(other.pressed, 0, pressed, 0, pressed.length);
+        System.arraycopy(other.justPressed, 0, justPressed, 0, justPressed.length);
+        buttons = other.buttons;
+        mouseX = other.mouseX;
+        mouseY = other.mouseY;
+    }
+
+    private static int collect(long[] bits, int[] out) {
+        int count = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                out[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    private static void checkKey(int key) {
+        if (key < 0 || key >= KEY_COUNT) {
+            throw new IllegalArgumentException("Key code out of range: " + key);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.mygdx.game;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Keeps copies of the sent frames in memory for a ReplicationDecoder in the same
+ * process, for tools and for checking the stream without a network.
+ */
+public class LoopbackReplicationSink implements ReplicationSink {
+    private final ArrayDeque<ByteBuffer> frames = new ArrayDeque<>();
+    private boolean keyframeRequested;
+
+    @Override
+    public void send(ByteBuffer frame, boolean keyframe) {
+        ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+        copy.put(frame.duplicate());
+        copy.flip();
+        frames.add(copy);
+        if (keyframe) keyframeRequested = false;
+    }
+
+    @Override
+    public boolean needsKeyframe() {
+        return keyframeRequested;
+    }
+
+    public void requestKeyframe() {
+        keyframeRequested = true;
+    }
+
+    // Oldest frame not yet taken, or null
+    public ByteBuffer poll() {
+        return frames.poll();
+    }
+
+    public int size() {
+        return frames.size();
+    }
+}
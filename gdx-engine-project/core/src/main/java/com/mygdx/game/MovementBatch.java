@@ -0,0 +1,54 @@
+package com.mygdx.game;
+
+/**
+ * Position, velocity and mass of a run of entities as primitive arrays; index i of each
+ * array is the same entity. In packed mode these are PackedStorage's own columns indexed
+ * by slot. Otherwise MovementManager gathers a block into scratch arrays and writes
+ * positions and velocities back afterwards. Mass is read-only.
+ */
+public class MovementBatch {
+    public float[] positionX;
+    public float[] positionY;
+    public float[] velocityX;
+    public float[] velocityY;
+    public float[] mass;
+
+    TransformComponent[] transforms;
+    PhysicsComponent[] physics;
+    // True when the arrays are a copy, so components must be synced around per-entity strategies
+    boolean gathered;
+
+    // An empty view, pointed at PackedStorage's columns before each use
+    MovementBatch() { }
+
+    // Scratch arrays for gathering up to capacity entities
+    MovementBatch(int capacity) {
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        mass = new float[capacity];
+        transforms = new TransformComponent[capacity];
+        physics = new PhysicsComponent[capacity];
+        gathered = true;
+    }
+
+    void view(PackedStorage storage) {
+        positionX = storage.positionX;
+        positionY = storage.positionY;
+        velocityX = storage.velocityX;
+        velocityY = storage.velocityY;
+        mass = storage.mass;
+        transforms = storage.transforms();
+        physics = storage.physics();
+        gathered = false;
+    }
+
+    public TransformComponent getTransform(int index) {
+        return transforms[index];
+    }
+
+    public PhysicsComponent getPhysics(int index) {
+        return physics[index];
+    }
+}
@@ -1,49 +1,450 @@
 package com.mygdx.game;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public class MovementManager implements IManager {
-    private List<MovementStrategy> strategies;
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+    // Entities per fused block; small enough that a block's columns stay in L1 between strategies
+    static final int BLOCK_SIZE = 256;
+    private static final float DEFAULT_SLEEP_VELOCITY = 0.01f;
+    private static final float DEFAULT_SLEEP_TIME = 0.5f;
+    private static final Set<Class<? extends Component>> READS = Collections.unmodifiableSet(
+        new HashSet<Class<? extends Component>>(Arrays.asList(TransformComponent.class, PhysicsComponent.class)));
+    // Strategies change velocities, and sleep bookkeeping lives on the physics component
+    private static final Set<Class<? extends Component>> WRITES = READS;
+
+    // Registered strategies in order, per-entity ones wrapped in MovementStrategyAdapter
+    private List<BatchMovementStrategy> strategies;
+    private List<MovementStrategy> entityStrategies;
+    // With no native batch strategy registered, the per-entity loop avoids the adapters
+    private int nativeBatchCount;
+    private final MovementBatch scratch = new MovementBatch(BLOCK_SIZE);
+    private final MovementBatch columns = new MovementBatch();
     private EntityManager entityManager;
+    private EntityQuery movables;
+    private int processed;
+    private int sleeping;
+
+    // Bodies slower than sleepVelocity for sleepTime seconds stop being moved until woken.
+    // Off by default: with it on, a body moved only through its transform must be woken first
+    private boolean sleepEnabled;
+    private float sleepVelocity = DEFAULT_SLEEP_VELOCITY;
+    private float sleepTime = DEFAULT_SLEEP_TIME;
+
+    // Parallel mode splits the entities into fixed-size chunks run on a fork-join pool
+    private boolean parallel;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private List<ChunkTask> chunkTasks = new ArrayList<>();
+    private int activeChunks;
+    private float chunkDeltaTime;
+    private final RecursiveAction rootTask = new RecursiveAction() {
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(chunkTasks.subList(0, activeChunks));
+        }
+    };
 
     public MovementManager(EntityManager entityManager) {
         this.entityManager = entityManager;
+        this.movables = entityManager.query(TransformComponent.class, PhysicsComponent.class);
         this.strategies = new ArrayList<>();
+        this.entityStrategies = new ArrayList<>();
     }
 
     @Override
     public void initialize() { }
 
+    // Strategies that also implement BatchMovementStrategy run through their batch method
     public void addMovementStrategy(MovementStrategy strategy) {
-        strategies.add(strategy);
+        entityStrategies.add(strategy);
+        if (strategy instanceof BatchMovementStrategy) {
+            strategies.add((BatchMovementStrategy) strategy);
+            nativeBatchCount++;
+        } else {
+            strategies.add(new MovementStrategyAdapter(strategy));
+        }
     }
 
     public void removeMovementStrategy(MovementStrategy strategy) {
-        strategies.remove(strategy);
+        if (!entityStrategies.remove(strategy)) return;
+        for (int s = 0; s < strategies.size(); s++) {
+            BatchMovementStrategy batch = strategies.get(s);
+            if (batch == strategy
+                    || (batch instanceof MovementStrategyAdapter && ((MovementStrategyAdapter) batch).strategy == strategy)) {
+                strategies.remove(s);
+                if (batch == strategy) nativeBatchCount--;
+                return;
+            }
+        }
+    }
+
+    public void addBatchStrategy(BatchMovementStrategy strategy) {
+        strategies.add(strategy);
+        nativeBatchCount++;
+    }
+
+    public void removeBatchStrategy(BatchMovementStrategy strategy) {
+        if (strategies.remove(strategy)) {
+            entityStrategies.remove(strategy);
+            nativeBatchCount--;
+        }
     }
 
     public void updateMovement(float deltaTime) {
-        for (Entity entity : entityManager.getEntities()) { 
-            if (!entity.isActive()) continue;
+        int count = entityManager.isPacked() ? entityManager.getPackedStorage().size() : movables.size();
+        if (parallel && count >= parallelThreshold && strategiesParallelSafe()) {
+            sleeping = updateParallel(count, deltaTime);
+        } else {
+            sleeping = moveRange(0, count, deltaTime, scratch, columns);
+        }
+        processed = count - sleeping;
+    }
+
+    // Every entity is handled by exactly one chunk with the same strategy order, so the
+    // result is bit-identical to the serial loop
+    private int updateParallel(int count, float deltaTime) {
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        while (chunkTasks.size() < chunks) {
+            chunkTasks.add(new ChunkTask());
+        }
+        for (int c = 0; c < chunks; c++) {
+            ChunkTask task = chunkTasks.get(c);
+            task.reinitialize();
+            task.from = c * chunkSize;
+            task.to = Math.min(count, task.from + chunkSize);
+        }
+        chunkDeltaTime = deltaTime;
+
+        activeChunks = chunks;
+        rootTask.reinitialize();
+        pool.invoke(rootTask);
+
+        int asleep = 0;
+        for (int c = 0; c < chunks; c++) {
+            asleep += chunkTasks.get(c).sleeping;
+        }
+        return asleep;
+    }
+
+    // Moves the entities in [from, to) and returns how many were skipped as sleeping
+    private int moveRange(int from, int to, float deltaTime, MovementBatch scratch, MovementBatch columns) {
+        if (nativeBatchCount > 0) {
+            if (entityManager.isPacked()) {
+                return moveBlocksPacked(entityManager.getPackedStorage(), from, to, deltaTime, scratch, columns);
+            }
+            return moveBlocksGathered(from, to, deltaTime, scratch);
+        }
+        if (entityManager.isPacked()) {
+            return movePacked(entityManager.getPackedStorage(), from, to, deltaTime);
+        }
+
+        // Only entities with both components, kept current by EntityManager
+        int asleep = 0;
+        for (int i = from; i < to; i++) {
+            Entity entity = movables.get(i);
+            TransformComponent transform = entity.getComponent(TransformComponent.class);
+            PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+
+            transform.savePreviousPosition();
+            if (!physics.isEnabled()) continue;
+            if (physics.isSleeping()) {
+                asleep++;
+                continue;
+            }
+            for (int s = 0; s < entityStrategies.size(); s++) {
+                entityStrategies.get(s).applyMovement(transform, physics, deltaTime);
+            }
+            updateSleep(physics, physics.getVelocityX(), physics.getVelocityY(), deltaTime);
+        }
+        return asleep;
+    }
+
+    // Walks the packed slots in order so the strategies touch the columns sequentially
+    private int movePacked(PackedStorage storage, int from, int to, float deltaTime) {
+        int asleep = 0;
+        for (int slot = from; slot < to; slot++) {
+            TransformComponent transform = storage.getTransform(slot);
+            PhysicsComponent physics = storage.getPhysics(slot);
+            if (transform == null || physics == null || !storage.getEntity(slot).isActive()) continue;
+
+            storage.previousPositionX[slot] = storage.positionX[slot];
+            storage.previousPositionY[slot] = storage.positionY[slot];
+            if (!physics.isEnabled()) continue;
+            if (physics.isSleeping()) {
+                asleep++;
+                continue;
+            }
+
+            for (int s = 0; s < entityStrategies.size(); s++) {
+                entityStrategies.get(s).applyMovement(transform, physics, deltaTime);
+            }
+            updateSleep(physics, storage.velocityX[slot], storage.velocityY[slot], deltaTime);
+        }
+        return asleep;
+    }
+
+    /**
+     * Fused batch path over the packed columns. Each block of slots runs through every
+     * strategy while it is still in cache. A block whose slots are all awake and movable
+     * is handed to the strategies as the columns themselves. A block with sleeping,
+     * inactive or disabled entities is gathered into scratch arrays first and written back
+     * after.
+     */
+    private int moveBlocksPacked(PackedStorage storage, int from, int to, float deltaTime,
+                                 MovementBatch scratch, MovementBatch columns) {
+        columns.view(storage);
+        int asleep = 0;
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int end = Math.min(to, start + BLOCK_SIZE);
+
+            boolean dense = true;
+            for (int slot = start; slot < end; slot++) {
+                TransformComponent transform = storage.getTransform(slot);
+                PhysicsComponent physics = storage.getPhysics(slot);
+                if (transform == null || physics == null || !storage.getEntity(slot).isActive()) {
+                    dense = false;
+                    continue;
+                }
+                storage.previousPositionX[slot] = storage.positionX[slot];
+                storage.previousPositionY[slot] = storage.positionY[slot];
+                if (!physics.isEnabled()) {
+                    dense = false;
+                } else if (physics.isSleeping()) {
+                    dense = false;
+                    asleep++;
+                }
+            }
 
-            TransformComponent transform = (TransformComponent) entity.getComponent(TransformComponent.class);
-            PhysicsComponent physics = (PhysicsComponent) entity.getComponent(PhysicsComponent.class);
+            if (dense) {
+                applyStrategies(columns, start, end, deltaTime);
+                for (int slot = start; slot < end; slot++) {
+                    updateSleep(storage.getPhysics(slot), storage.velocityX[slot], storage.velocityY[slot], deltaTime);
+                }
+                continue;
+            }
+
+            int count = 0;
+            for (int slot = start; slot < end; slot++) {
+                TransformComponent transform = storage.getTransform(slot);
+                PhysicsComponent physics = storage.getPhysics(slot);
+                if (transform == null || physics == null || !physics.isEnabled() || physics.isSleeping()
+                        || !storage.getEntity(slot).isActive()) continue;
+                gather(scratch, count++, transform, physics);
+            }
+            applyStrategies(scratch, 0, count, deltaTime);
+            scatter(scratch, count, deltaTime);
+        }
+        return asleep;
+    }
 
-            if (transform != null && physics != null && physics.isEnabled()) {
-                for (MovementStrategy strategy : strategies) {
-                    strategy.applyMovement(transform, physics, deltaTime);
+    // Fused batch path for object storage: blocks of movables are copied in and out of scratch arrays
+    private int moveBlocksGathered(int from, int to, float deltaTime, MovementBatch scratch) {
+        int asleep = 0;
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int end = Math.min(to, start + BLOCK_SIZE);
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                Entity entity = movables.get(i);
+                TransformComponent transform = entity.getComponent(TransformComponent.class);
+                PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+
+                transform.savePreviousPosition();
+                if (!physics.isEnabled()) continue;
+                if (physics.isSleeping()) {
+                    asleep++;
+                } else {
+                    gather(scratch, count++, transform, physics);
                 }
             }
+            applyStrategies(scratch, 0, count, deltaTime);
+            scatter(scratch, count, deltaTime);
+        }
+        return asleep;
+    }
+
+    private void applyStrategies(MovementBatch batch, int from, int to, float deltaTime) {
+        for (int s = 0; s < strategies.size(); s++) {
+            strategies.get(s).applyMovement(batch, from, to, deltaTime);
+        }
+    }
+
+    private static void gather(MovementBatch batch, int index, TransformComponent transform, PhysicsComponent physics) {
+        batch.transforms[index] = transform;
+        batch.physics[index] = physics;
+        batch.positionX[index] = transform.getPositionX();
+        batch.positionY[index] = transform.getPositionY();
+        batch.velocityX[index] = physics.getVelocityX();
+        batch.velocityY[index] = physics.getVelocityY();
+        batch.mass[index] = physics.getMass();
+    }
+
+    private void scatter(MovementBatch batch, int count, float deltaTime) {
+        for (int i = 0; i < count; i++) {
+            batch.transforms[i].setPosition(batch.positionX[i], batch.positionY[i]);
+            batch.physics[i].setVelocity(batch.velocityX[i], batch.velocityY[i]);
+            updateSleep(batch.physics[i], batch.velocityX[i], batch.velocityY[i], deltaTime);
+            // Drop the references so removed entities aren't kept alive by the scratch block
+            batch.transforms[i] = null;
+            batch.physics[i] = null;
         }
     }
 
+    // Puts a body to sleep once its speed has stayed under the threshold for the sleep time
+    private void updateSleep(PhysicsComponent physics, float velocityX, float velocityY, float deltaTime) {
+        if (!sleepEnabled || !physics.isSleepAllowed()) return;
+        if (velocityX * velocityX + velocityY * velocityY > sleepVelocity * sleepVelocity) {
+            physics.sleepTimer = 0;
+        } else {
+            physics.sleepTimer += deltaTime;
+            if (physics.sleepTimer >= sleepTime) {
+                physics.sleep();
+            }
+        }
+    }
+
+    private boolean strategiesParallelSafe() {
+        for (int s = 0; s < strategies.size(); s++) {
+            if (!strategies.get(s).isParallelSafe()) return false;
+        }
+        return true;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Below this many entities the update stays on the calling thread
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public boolean isSleepEnabled() {
+        return sleepEnabled;
+    }
+
+    // Turning sleep off wakes every sleeping body
+    public void setSleepEnabled(boolean sleepEnabled) {
+        this.sleepEnabled = sleepEnabled;
+        if (!sleepEnabled) wakeAll();
+    }
+
+    public float getSleepVelocity() {
+        return sleepVelocity;
+    }
+
+    public void setSleepVelocity(float sleepVelocity) {
+        if (sleepVelocity < 0) {
+            throw new IllegalArgumentException("Sleep velocity must not be negative: " + sleepVelocity);
+        }
+        this.sleepVelocity = sleepVelocity;
+    }
+
+    public float getSleepTime() {
+        return sleepTime;
+    }
+
+    public void setSleepTime(float sleepTime) {
+        if (sleepTime < 0) {
+            throw new IllegalArgumentException("Sleep time must not be negative: " + sleepTime);
+        }
+        this.sleepTime = sleepTime;
+    }
+
+    public void wakeAll() {
+        if (entityManager.isPacked()) {
+            PackedStorage storage = entityManager.getPackedStorage();
+            for (int slot = 0; slot < storage.size(); slot++) {
+                if (storage.getPhysics(slot) != null) storage.getPhysics(slot).wake();
+            }
+        } else {
+            for (int i = 0; i < movables.size(); i++) {
+                movables.get(i).getComponent(PhysicsComponent.class).wake();
+            }
+        }
+    }
+
+    // Bodies moved by the last update, and bodies skipped because they were asleep
+    public int getAwakeCount() {
+        return processed;
+    }
+
+    public int getSleepingCount() {
+        return sleeping;
+    }
+
     @Override
     public void update(float deltaTime) {
         updateMovement(deltaTime);
     }
 
+    @Override
+    public void collectCounters(FrameCounters counters) {
+        counters.entitiesProcessed += processed;
+        counters.entitiesSleeping += sleeping;
+    }
+
     @Override
     public void shutdown() {
         strategies.clear();
+        entityStrategies.clear();
+        nativeBatchCount = 0;
+    }
+
+    @Override
+    public Set<Class<? extends Component>> getReadTypes() {
+        return READS;
+    }
+
+    @Override
+    public Set<Class<? extends Component>> getWriteTypes() {
+        return WRITES;
+    }
+
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final MovementBatch scratch = new MovementBatch(BLOCK_SIZE);
+        final MovementBatch columns = new MovementBatch();
+        int from;
+        int to;
+        int sleeping;
+
+        @Override
+        protected void compute() {
+            sleeping = moveRange(from, to, chunkDeltaTime, scratch, columns);
+        }
     }
 }
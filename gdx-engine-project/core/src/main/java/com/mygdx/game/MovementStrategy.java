@@ -2,4 +2,9 @@ package com.mygdx.game;
 
 public interface MovementStrategy {
     void applyMovement(TransformComponent transform, PhysicsComponent physics, float deltaTime);
+
+    // True if the strategy only touches the entity it is given, so chunks can run concurrently
+    default boolean isParallelSafe() {
+        return false;
+    }
 }
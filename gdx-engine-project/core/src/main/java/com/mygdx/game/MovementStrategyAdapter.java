@@ -0,0 +1,37 @@
+package com.mygdx.game;
+
+/** Runs a per-entity MovementStrategy as a BatchMovementStrategy. */
+class MovementStrategyAdapter implements BatchMovementStrategy {
+    final MovementStrategy strategy;
+
+    MovementStrategyAdapter(MovementStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void applyMovement(MovementBatch batch, int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            TransformComponent transform = batch.transforms[i];
+            PhysicsComponent physics = batch.physics[i];
+            if (!batch.gathered) {
+                // Packed view: the components already read and write these columns
+                strategy.applyMovement(transform, physics, deltaTime);
+                continue;
+            }
+
+            // Gathered copy: push earlier strategies' results into the components and read back
+            transform.setPosition(batch.positionX[i], batch.positionY[i]);
+            physics.setVelocity(batch.velocityX[i], batch.velocityY[i]);
+            strategy.applyMovement(transform, physics, deltaTime);
+            batch.positionX[i] = transform.getPositionX();
+            batch.positionY[i] = transform.getPositionY();
+            batch.velocityX[i] = physics.getVelocityX();
+            batch.velocityY[i] = physics.getVelocityY();
+        }
+    }
+
+    @Override
+    public boolean isParallelSafe() {
+        return strategy.isParallelSafe();
+    }
+}
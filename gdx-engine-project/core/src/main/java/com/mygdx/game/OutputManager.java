@@ -6,23 +6,26 @@ public class OutputManager {
 
     private SpriteBatch batch;
 
-    public OutputManager() {
-        this.batch = new SpriteBatch();
-    }
-
+    // The batch needs a GL context, so it is only created once something draws
     public void begin() {
-        batch.begin();
+        getBatch().begin();
     }
 
     public void end() {
-        batch.end();
+        getBatch().end();
     }
 
     public SpriteBatch getBatch() {
+        if (batch == null) {
+            batch = new SpriteBatch();
+        }
         return batch;
     }
 
     public void dispose() {
-        batch.dispose();
+        if (batch != null) {
+            batch.dispose();
+            batch = null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays storage for transform and physics data. Each packed entity owns a
+ * dense slot, and its TransformComponent and PhysicsComponent read and write the
+ * columns at that slot. Slots are kept contiguous with swap-remove, so systems can
+ * stream through [0, size()) linearly.
+ */
+public class PackedStorage {
+    public float[] positionX;
+    public float[] positionY;
+    public float[] width;
+    public float[] height;
+    public float[] rotation;
+    public float[] previousPositionX;
+    public float[] previousPositionY;
+    public float[] velocityX;
+    public float[] velocityY;
+    public float[] mass;
+
+    private Entity[] entities;
+    private TransformComponent[] transforms;
+    private PhysicsComponent[] physics;
+    private int size;
+
+    public PackedStorage(int capacity) {
+        allocate(Math.max(capacity, 16));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Entity getEntity(int slot) {
+        return entities[slot];
+    }
+
+    public TransformComponent getTransform(int slot) {
+        return transforms[slot];
+    }
+
+    public PhysicsComponent getPhysics(int slot) {
+        return physics[slot];
+    }
+
+    // Slot-indexed component arrays, for MovementBatch views over the columns
+    TransformComponent[] transforms() {
+        return transforms;
+    }
+
+    PhysicsComponent[] physics() {
+        return physics;
+    }
+
+    void attach(Entity entity) {
+        if (entity.packedSlot != -1) return;
+        if (size == entities.length) {
+            allocate(size * 2);
+        }
+
+        int slot = size++;
+        entities[slot] = entity;
+        entity.storage = this;
+        entity.packedSlot = slot;
+        for (Component component : entity.getComponents()) {
+            if (component != null) componentAdded(entity, component);
+        }
+    }
+
+    void detach(Entity entity) {
+        int slot = entity.packedSlot;
+        if (slot == -1 || entities[slot] != entity) return;
+
+        if (transforms[slot] != null) transforms[slot].unbind();
+        if (physics[slot] != null) physics[slot].unbind();
+
+        // Fill the hole with the last slot to keep the columns dense
+        int last = --size;
+        if (slot != last) {
+            moveSlot(last, slot);
+        }
+        entities[last] = null;
+        transforms[last] = null;
+        physics[last] = null;
+        entity.storage = null;
+        entity.packedSlot = -1;
+    }
+
+    void componentAdded(Entity entity, Component component) {
+        int slot = entity.packedSlot;
+        if (component instanceof TransformComponent && transforms[slot] == null) {
+            transforms[slot] = (TransformComponent) component;
+            transforms[slot].bind(this, slot);
+        } else if (component instanceof PhysicsComponent && physics[slot] == null) {
+            physics[slot] = (PhysicsComponent) component;
+            physics[slot].bind(this, slot);
+        }
+    }
+
+    void componentRemoved(Entity entity, Component component) {
+        int slot = entity.packedSlot;
+        if (component == transforms[slot]) {
+            transforms[slot].unbind();
+            transforms[slot] = null;
+        } else if (component == physics[slot]) {
+            physics[slot].unbind();
+            physics[slot] = null;
+            velocityX[slot] = 0;
+            velocityY[slot] = 0;
+            mass[slot] = 0;
+        }
+    }
+
+    private void moveSlot(int from, int to) {
+        positionX[to] = positionX[from];
+        positionY[to] = positionY[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        rotation[to] = rotation[from];
+        previousPositionX[to] = previousPositionX[from];
+        previousPositionY[to] = previousPositionY[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        mass[to] = mass[from];
+
+        entities[to] = entities[from];
+        transforms[to] = transforms[from];
+        physics[to] = physics[from];
+        entities[to].packedSlot = to;
+        if (transforms[to] != null) transforms[to].setSlot(to);
+        if (physics[to] != null) physics[to].setSlot(to);
+    }
+
+    private void allocate(int capacity) {
+        if (entities == null) {
+            positionX = new float[capacity];
+            positionY = new float[capacity];
+            width = new float[capacity];
+            height = new float[capacity];
+            rotation = new float[capacity];
+            previousPositionX = new float[capacity];
+            previousPositionY = new float[capacity];
+            velocityX = new float[capacity];
+            velocityY = new float[capacity];
+            mass = new float[capacity];
+            entities = new Entity[capacity];
+            transforms = new TransformComponent[capacity];
+            physics = new PhysicsComponent[capacity];
+        } else {
+            positionX = Arrays.copyOf(positionX, capacity);
+            positionY = Arrays.copyOf(positionY, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            rotation = Arrays.copyOf(rotation, capacity);
+            previousPositionX = Arrays.copyOf(previousPositionX, capacity);
+            previousPositionY = Arrays.copyOf(previousPositionY, capacity);
+            velocityX = Arrays.copyOf(velocityX, capacity);
+            velocityY = Arrays.copyOf(velocityY, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            entities = Arrays.copyOf(entities, capacity);
+            transforms = Arrays.copyOf(transforms, capacity);
+            physics = Arrays.copyOf(physics, capacity);
+        }
+    }
+}
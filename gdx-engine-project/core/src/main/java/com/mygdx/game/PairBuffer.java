@@ -0,0 +1,63 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of collider index pairs packed as (lowIndex << 32 | highIndex).
+ * Sorting the packed values orders pairs exactly like a nested i < j loop.
+ */
+public class PairBuffer {
+    private long[] pairs;
+    private int size;
+
+    public PairBuffer(int capacity) {
+        this.pairs = new long[Math.max(capacity, 16)];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int first, int second) {
+        if (size == pairs.length) {
+            pairs = Arrays.copyOf(pairs, size * 2);
+        }
+        if (first > second) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        pairs[size++] = ((long) first << 32) | second;
+    }
+
+    public void addAll(PairBuffer other) {
+        if (size + other.size > pairs.length) {
+            pairs = Arrays.copyOf(pairs, Math.max(size + other.size, pairs.length * 2));
+        }
+        System.arraycopy(other.pairs, 0, pairs, size, other.size);
+        size += other.size;
+    }
+
+    public void sortUnique() {
+        Arrays.sort(pairs, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || pairs[unique - 1] != pairs[i]) {
+                pairs[unique++] = pairs[i];
+            }
+        }
+        size = unique;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getFirst(int pair) {
+        return (int) (pairs[pair] >>> 32);
+    }
+
+    public int getSecond(int pair) {
+        return (int) pairs[pair];
+    }
+}
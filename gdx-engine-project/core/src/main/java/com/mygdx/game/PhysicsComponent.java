@@ -1,16 +1,134 @@
 package com.mygdx.game;
 
 public class PhysicsComponent extends Component {
-    public float velocityX;
-    public float velocityY;
-    public float mass;
+    private float velocityX;
+    private float velocityY;
+    private float mass;
+
+    // Set while the owner lives in packed storage; the fields above are stale until unbound
+    private PackedStorage storage;
+    private int slot = -1;
+
+    // Sleeping bodies are skipped by MovementManager; any velocity write wakes them
+    private boolean sleeping;
+    private boolean sleepAllowed = true;
+    float sleepTimer;
 
     public PhysicsComponent(float velX, float velY, float mass) {
         this.velocityX = velX;
         this.velocityY = velY;
         this.mass = mass;
     }
-    
+
+    public float getVelocityX() {
+        return storage == null ? velocityX : storage.velocityX[slot];
+    }
+
+    public float getVelocityY() {
+        return storage == null ? velocityY : storage.velocityY[slot];
+    }
+
+    public float getMass() {
+        return storage == null ? mass : storage.mass[slot];
+    }
+
+    public void setVelocity(float velX, float velY) {
+        if (sleeping) wake();
+        if (storage == null) {
+            velocityX = velX;
+            velocityY = velY;
+        } else {
+            storage.velocityX[slot] = velX;
+            storage.velocityY[slot] = velY;
+        }
+    }
+
+    public void setVelocityX(float velX) {
+        if (sleeping) wake();
+        if (storage == null) velocityX = velX; else storage.velocityX[slot] = velX;
+    }
+
+    public void setVelocityY(float velY) {
+        if (sleeping) wake();
+        if (storage == null) velocityY = velY; else storage.velocityY[slot] = velY;
+    }
+
+    public void setMass(float mass) {
+        if (storage == null) this.mass = mass; else storage.mass[slot] = mass;
+    }
+
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    // Wakes the body and restarts its sleep timer
+    public void wake() {
+        sleeping = false;
+        sleepTimer = 0;
+    }
+
+    // Puts the body to sleep now; its velocity is zeroed without waking it
+    public void sleep() {
+        if (!sleepAllowed) return;
+        if (storage == null) {
+            velocityX = 0;
+            velocityY = 0;
+        } else {
+            storage.velocityX[slot] = 0;
+            storage.velocityY[slot] = 0;
+        }
+        sleeping = true;
+        sleepTimer = 0;
+    }
+
+    public boolean isSleepAllowed() {
+        return sleepAllowed;
+    }
+
+    public void setSleepAllowed(boolean sleepAllowed) {
+        this.sleepAllowed = sleepAllowed;
+        if (!sleepAllowed) wake();
+    }
+
+    @Override
+    public PhysicsComponent copy() {
+        PhysicsComponent copy = new PhysicsComponent(getVelocityX(), getVelocityY(), getMass());
+        copy.sleepAllowed = sleepAllowed;
+        copy.enabled = enabled;
+        return copy;
+    }
+
+    @Override
+    public void set(Component template) {
+        super.set(template);
+        PhysicsComponent other = (PhysicsComponent) template;
+        setVelocity(other.getVelocityX(), other.getVelocityY());
+        setMass(other.getMass());
+        sleepAllowed = other.sleepAllowed;
+        wake();
+    }
+
+    void bind(PackedStorage storage, int slot) {
+        storage.velocityX[slot] = velocityX;
+        storage.velocityY[slot] = velocityY;
+        storage.mass[slot] = mass;
+        this.storage = storage;
+        this.slot = slot;
+    }
+
+    void unbind() {
+        if (storage == null) return;
+        velocityX = storage.velocityX[slot];
+        velocityY = storage.velocityY[slot];
+        mass = storage.mass[slot];
+        storage = null;
+        slot = -1;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     @Override
     public void update(float deltaTime) {
         // Physics update handled by MovementManager
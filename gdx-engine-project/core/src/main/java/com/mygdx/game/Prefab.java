@@ -0,0 +1,67 @@
+package com.mygdx.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Template for pooled entities: a set of components holding default values.
+ * Templates are never attached to an entity; spawned entities get their own
+ * components through Component.copy() and are reset with Component.set().
+ */
+public class Prefab {
+    private final String name;
+    private final List<Component> templates;
+
+    public Prefab(String name) {
+        this.name = name;
+        this.templates = new ArrayList<>();
+    }
+
+    // Copies the template once, so a component that can't be pooled fails here rather than on spawn
+    public Prefab with(Component template) {
+        Component copy = template.copy();
+        if (copy == null || copy.getClass() != template.getClass()) {
+            throw new IllegalArgumentException(template.getClass().getSimpleName()
+                + ".copy() must return a " + template.getClass().getSimpleName() + " to be used in a Prefab");
+        }
+        templates.add(template);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    Entity instantiate() {
+        Entity entity = new Entity();
+        for (int i = 0; i < templates.size(); i++) {
+            entity.addComponent(templates.get(i).copy());
+        }
+        return entity;
+    }
+
+    // Brings a recycled entity's components back to the template values and reattaches them
+    void reset(Entity entity) {
+        Component[] components = entity.getComponents();
+        for (int i = 0; i < templates.size(); i++) {
+            Component template = templates.get(i);
+            int typeId = ComponentType.of(template.getClass());
+            Component component = typeId < components.length ? components[typeId] : null;
+            if (component == null) {
+                // Game code removed it before the despawn; put a fresh one back
+                entity.addComponent(template.copy());
+                continue;
+            }
+            component.set(template);
+            component.onAttach(entity);
+        }
+        entity.setActive(true);
+    }
+
+    boolean hasType(int typeId) {
+        for (int i = 0; i < templates.size(); i++) {
+            if (ComponentType.of(templates.get(i).getClass()) == typeId) return true;
+        }
+        return false;
+    }
+}
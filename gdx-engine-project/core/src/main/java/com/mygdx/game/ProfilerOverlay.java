@@ -0,0 +1,68 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import java.util.List;
+
+/** Draws the profiler's per-manager timings as text, one line per section. */
+public class ProfilerOverlay {
+    private static final float LINE_HEIGHT = 16f;
+
+    private final FrameProfiler profiler;
+    private final StringBuilder line = new StringBuilder(128);
+    private BitmapFont font;
+
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    // Call between output.begin() and output.end(); y is the top line's baseline
+    public void draw(OutputManager output, float x, float y) {
+        if (!profiler.isEnabled()) return;
+        if (font == null) {
+            font = new BitmapFont();
+        }
+
+        line.setLength(0);
+        line.append("tick ");
+        appendMillis(profiler.getLastTickNanos());
+        line.append(" p99 ");
+        appendMillis(profiler.getTickHistogram().getPercentile(0.99));
+        line.append(" pairs ").append(profiler.getTickCounters().pairsTested)
+            .append('/').append(profiler.getTickCounters().pairsOverlapped);
+        line.append(" asleep ").append(profiler.getTickCounters().entitiesSleeping);
+        font.draw(output.getBatch(), line, x, y);
+
+        List<FrameProfiler.Section> sections = profiler.getSections();
+        for (int i = 0; i < sections.size(); i++) {
+            FrameProfiler.Section section = sections.get(i);
+            line.setLength(0);
+            line.append(section.getName()).append(' ');
+            appendMillis(section.getLastNanos());
+            line.append(" p99 ");
+            appendMillis(section.getHistogram().getPercentile(0.99));
+            line.append(" max ");
+            appendMillis(section.getHistogram().getMax());
+            if (profiler.getAllocationTracker() != null) {
+                line.append(" alloc ").append(section.getCounters().bytesAllocated).append('B');
+            }
+            font.draw(output.getBatch(), line, x, y - (i + 1) * LINE_HEIGHT);
+        }
+    }
+
+    // Fixed three decimals without String.format, so drawing each frame doesn't allocate
+    private void appendMillis(long nanos) {
+        long micros = nanos / 1000;
+        long fraction = micros % 1000;
+        line.append(micros / 1000).append('.');
+        if (fraction < 100) line.append('0');
+        if (fraction < 10) line.append('0');
+        line.append(fraction).append("ms");
+    }
+
+    public void dispose() {
+        if (font != null) {
+            font.dispose();
+            font = null;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/** Copy of a FrameProfiler's figures at one tick; the first entry covers the whole tick. */
+public class ProfilerSnapshot {
+    private final long tick;
+    private final List<Stats> stats;
+
+    ProfilerSnapshot(long tick, List<Stats> stats) {
+        this.tick = tick;
+        this.stats = Collections.unmodifiableList(stats);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public List<Stats> getStats() {
+        return stats;
+    }
+
+    public void writeCsv(Appendable out, boolean header) throws IOException {
+        if (header) {
+            out.append("tick,section,count,mean_ns,p50_ns,p99_ns,max_ns,last_ns,"
+                + "entities_processed,entities_sleeping,pairs_tested,pairs_overlapped,callbacks_dispatched,bytes_allocated\n");
+        }
+        for (Stats s : stats) {
+            out.append(Long.toString(tick)).append(',').append(s.name)
+                .append(',').append(Long.toString(s.count))
+                .append(',').append(Long.toString(Math.round(s.mean)))
+                .append(',').append(Long.toString(s.p50))
+                .append(',').append(Long.toString(s.p99))
+                .append(',').append(Long.toString(s.max))
+                .append(',').append(Long.toString(s.lastNanos))
+                .append(',').append(Long.toString(s.entitiesProcessed))
+                .append(',').append(Long.toString(s.entitiesSleeping))
+                .append(',').append(Long.toString(s.pairsTested))
+                .append(',').append(Long.toString(s.pairsOverlapped))
+                .append(',').append(Long.toString(s.callbacksDispatched))
+                .append(',').append(Long.toString(s.bytesAllocated))
+                .append('\n');
+        }
+    }
+
+    // One JSON object per line, so periodic dumps can be appended and read back as JSON Lines
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\"tick\":").append(Long.toString(tick)).append(",\"sections\":[");
+        for (int i = 0; i < stats.size(); i++) {
+            Stats s = stats.get(i);
+            if (i > 0) out.append(',');
+            out.append("{\"name\":\"").append(s.name)
+                .append("\",\"count\":").append(Long.toString(s.count))
+                .append(",\"meanNs\":").append(Long.toString(Math.round(s.mean)))
+                .append(",\"p50Ns\":").append(Long.toString(s.p50))
+                .append(",\"p99Ns\":").append(Long.toString(s.p99))
+                .append(",\"maxNs\":").append(Long.toString(s.max))
+                .append(",\"lastNs\":").append(Long.toString(s.lastNanos))
+                .append(",\"entitiesProcessed\":").append(Long.toString(s.entitiesProcessed))
+                .append(",\"entitiesSleeping\":").append(Long.toString(s.entitiesSleeping))
+                .append(",\"pairsTested\":").append(Long.toString(s.pairsTested))
+                .append(",\"pairsOverlapped\":").append(Long.toString(s.pairsOverlapped))
+                .append(",\"callbacksDispatched\":").append(Long.toString(s.callbacksDispatched))
+                .append(",\"bytesAllocated\":").append(Long.toString(s.bytesAllocated))
+                .append('}');
+        }
+        out.append("]}\n");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        try {
+            writeCsv(out, true);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out.toString();
+    }
+
+    /** Latency percentiles and last-tick counters for one section. */
+    public static class Stats {
+        private final String name;
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p99;
+        private final long max;
+        private final long lastNanos;
+        private final long entitiesProcessed;
+        private final long entitiesSleeping;
+        private final long pairsTested;
+        private final long pairsOverlapped;
+        private final long callbacksDispatched;
+        private final long bytesAllocated;
+
+        Stats(String name, LatencyHistogram histogram, long lastNanos, FrameCounters counters) {
+            this.name = name;
+            this.count = histogram.getCount();
+            this.mean = histogram.getMean();
+            this.p50 = histogram.getPercentile(0.50);
+            this.p99 = histogram.getPercentile(0.99);
+            this.max = histogram.getMax();
+            this.lastNanos = lastNanos;
+            this.entitiesProcessed = counters.entitiesProcessed;
+            this.entitiesSleeping = counters.entitiesSleeping;
+            this.pairsTested = counters.pairsTested;
+            this.pairsOverlapped = counters.pairsOverlapped;
+            this.callbacksDispatched = counters.callbacksDispatched;
+            this.bytesAllocated = counters.bytesAllocated;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        public long getEntitiesProcessed() {
+            return entitiesProcessed;
+        }
+
+        public long getEntitiesSleeping() {
+            return entitiesSleeping;
+        }
+
+        public long getPairsTested() {
+            return pairsTested;
+        }
+
+        public long getPairsOverlapped() {
+            return pairsOverlapped;
+        }
+
+        public long getCallbacksDispatched() {
+            return callbacksDispatched;
+        }
+
+        public long getBytesAllocated() {
+            return bytesAllocated;
+        }
+    }
+}
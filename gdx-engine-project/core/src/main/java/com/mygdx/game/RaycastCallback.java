@@ -0,0 +1,10 @@
+package com.mygdx.game;
+
+public interface RaycastCallback {
+    /**
+     * Called for every collider the ray hits, with the hit fraction along the ray.
+     * Return the new maximum fraction: 0 stops the cast, the given fraction clips the
+     * ray to the closest hit so far, and 1 keeps reporting every hit.
+     */
+    float onRayHit(CollisionComponent collider, float fraction);
+}
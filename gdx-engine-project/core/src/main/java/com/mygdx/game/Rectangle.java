@@ -20,4 +20,9 @@ public class Rectangle {
                y < other.y + other.height &&
                y + height > other.y;
     }
+
+    public boolean contains(float px, float py) {
+        return px >= x && px < x + width &&
+               py >= y && py < y + height;
+    }
 }
@@ -0,0 +1,45 @@
+package com.mygdx.game;
+
+/**
+ * InputManager that answers from an InputSnapshot instead of Gdx.input, so recorded
+ * input can drive the simulation without a window. ReplayRunner sets the snapshot
+ * before every tick.
+ */
+public class ReplayInputManager extends InputManager {
+    private final InputSnapshot snapshot = new InputSnapshot();
+
+    public InputSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(InputSnapshot snapshot) {
+        this.snapshot.set(snapshot);
+    }
+
+    @Override
+    public boolean isKeyPressed(int key) {
+        return snapshot.isKeyPressed(key);
+    }
+
+    @Override
+    public boolean isKeyJustPressed(int key) {
+        return snapshot.isKeyJustPressed(key);
+    }
+
+    @Override
+    public boolean isButtonPressed(int button) {
+        return snapshot.isButtonPressed(button);
+    }
+
+    @Override
+    public Vector2 getMousePosition(Vector2 out) {
+        out.set(snapshot.getMouseX(), snapshot.getMouseY());
+        return out;
+    }
+
+    @Override
+    public InputSnapshot capture(InputSnapshot out) {
+        out.set(snapshot);
+        return out;
+    }
+}
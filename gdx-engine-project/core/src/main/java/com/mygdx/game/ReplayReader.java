@@ -0,0 +1,151 @@
+package com.mygdx.game;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a log written by ReplayRecorder one tick at a time, refilling a direct buffer
+ * from the channel as it drains.
+ */
+public class ReplayReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final String info;
+    private final InputSnapshot current = new InputSnapshot();
+    private boolean endOfFile;
+
+    private float deltaTime;
+    private boolean hasChecksum;
+    private long checksum;
+    private long ticks;
+
+    public ReplayReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer = ByteBuffer.allocateDirect(ReplayRecorder.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        try {
+            fill(10);
+            if (buffer.remaining() < 10 || buffer.getInt() != ReplayRecorder.MAGIC) {
+                throw new IOException("Not a replay log: " + path);
+            }
+            short version = buffer.getShort();
+            if (version != ReplayRecorder.VERSION) {
+                throw new IOException("Unsupported replay log version " + version + ": " + path);
+            }
+            int infoLength = buffer.getInt();
+            if (infoLength < 0 || infoLength > ReplayRecorder.MAX_INFO_BYTES) {
+                throw new IOException("Corrupt replay log header: " + path);
+            }
+            fill(infoLength);
+            byte[] infoBytes = new byte[infoLength];
+            buffer.get(infoBytes);
+            info = new String(infoBytes, StandardCharsets.UTF_8);
+        } catch (BufferUnderflowException e) {
+            channel.close();
+            throw new EOFException("Replay log header is truncated: " + path);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public String getInfo() {
+        return info;
+    }
+
+    // Reads the next tick's input into out; false at the end of the log
+    public boolean next(InputSnapshot out) throws IOException {
+        fill(ReplayRecorder.MAX_RECORD_SIZE);
+        if (!buffer.hasRemaining()) return false;
+
+        try {
+            int flags = buffer.get();
+            if ((flags & ReplayRecorder.FLAG_DELTA) != 0) deltaTime = buffer.getFloat();
+            // Held keys carry over until the next change; just-pressed keys last one tick
+            if ((flags & ReplayRecorder.FLAG_KEYS) != 0) {
+                current.clearKeys();
+                for (int i = getVarInt(); i > 0; i--) {
+                    current.setKeyPressed(buffer.get() & 0xFF, true);
+                }
+            } else {
+                current.clearJustPressed();
+            }
+            if ((flags & ReplayRecorder.FLAG_JUST_PRESSED) != 0) {
+                for (int i = getVarInt(); i > 0; i--) {
+                    current.setKeyJustPressed(buffer.get() & 0xFF, true);
+                }
+            }
+            if ((flags & ReplayRecorder.FLAG_MOUSE) != 0) {
+                int mouseX = current.getMouseX() + unzigzag(getVarInt());
+                int mouseY = current.getMouseY() + unzigzag(getVarInt());
+                current.setMousePosition(mouseX, mouseY);
+            }
+            if ((flags & ReplayRecorder.FLAG_BUTTONS) != 0) current.setButtons(buffer.get());
+            hasChecksum = (flags & ReplayRecorder.FLAG_CHECKSUM) != 0;
+            if (hasChecksum) checksum = buffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Replay log is truncated at tick " + ticks);
+        }
+
+        ticks++;
+        out.set(current);
+        return true;
+    }
+
+    public float getDeltaTime() {
+        return deltaTime;
+    }
+
+    public boolean hasChecksum() {
+        return hasChecksum;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    // Ticks read so far
+    public long getTicks() {
+        return ticks;
+    }
+
+    // Tops the buffer up from the channel until it holds at least needed bytes or the file ends
+    private void fill(int needed) throws IOException {
+        if (buffer.remaining() >= needed || endOfFile) return;
+        buffer.compact();
+        while (buffer.position() < needed && buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    private int getVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Corrupt varint in replay log at tick " + ticks);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
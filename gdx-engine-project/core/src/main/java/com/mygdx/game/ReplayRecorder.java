@@ -0,0 +1,149 @@
+package com.mygdx.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes one record per simulation tick: the tick's delta, its input and optionally a
+ * StateChecksum of the world after the tick. Records only hold what changed since the
+ * previous tick, so an idle tick costs a flags byte plus the checksum. Records are
+ * staged in a direct buffer and written to the channel when it fills, without
+ * allocating per tick.
+ *
+ * Layout (little-endian): magic, version, info length and UTF-8 info text, then
+ * records. A record starts with a flags byte. Each set flag adds a field, in flag
+ * order: delta as a float; held keys as a count plus one byte per key code;
+ * just-pressed keys in the same form; mouse movement as two zigzag varints; the
+ * button mask as a byte; the checksum as a long.
+ */
+public class ReplayRecorder implements Closeable {
+    static final int MAGIC = 0x52584447;
+    static final short VERSION = 1;
+    static final int MAX_INFO_BYTES = 8 * 1024;
+
+    static final int FLAG_DELTA = 1;
+    static final int FLAG_KEYS = 1 << 1;
+    static final int FLAG_JUST_PRESSED = 1 << 2;
+    static final int FLAG_MOUSE = 1 << 3;
+    static final int FLAG_BUTTONS = 1 << 4;
+    static final int FLAG_CHECKSUM = 1 << 5;
+
+    // Flags, delta, both key lists with varint counts, two mouse varints, buttons and checksum
+    static final int MAX_RECORD_SIZE = 1 + 4 + 2 * (5 + InputSnapshot.KEY_COUNT) + 10 + 1 + 8;
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final InputSnapshot previous = new InputSnapshot();
+    private final int[] keys = new int[InputSnapshot.KEY_COUNT];
+    private float previousDelta = Float.NaN;
+    private long ticks;
+    private long bytesWritten;
+
+    public ReplayRecorder(Path path) throws IOException {
+        this(path, "");
+    }
+
+    // info is free text stored in the header, e.g. the scene settings the recording needs
+    public ReplayRecorder(Path path, String info) throws IOException {
+        byte[] infoBytes = info.getBytes(StandardCharsets.UTF_8);
+        if (infoBytes.length > MAX_INFO_BYTES) {
+            throw new IllegalArgumentException("Replay info is longer than " + MAX_INFO_BYTES + " bytes");
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(infoBytes.length);
+        buffer.put(infoBytes);
+    }
+
+    public void record(float deltaTime, InputSnapshot input) throws IOException {
+        write(deltaTime, input, false, 0);
+    }
+
+    public void record(float deltaTime, InputSnapshot input, long checksum) throws IOException {
+        write(deltaTime, input, true, checksum);
+    }
+
+    private void write(float deltaTime, InputSnapshot input, boolean hasChecksum, long checksum) throws IOException {
+        if (buffer.remaining() < MAX_RECORD_SIZE) {
+            flush();
+        }
+
+        int flags = 0;
+        if (Float.floatToIntBits(deltaTime) != Float.floatToIntBits(previousDelta)) flags |= FLAG_DELTA;
+        if (!input.samePressedKeys(previous)) flags |= FLAG_KEYS;
+        if (input.hasJustPressedKeys()) flags |= FLAG_JUST_PRESSED;
+        if (input.getMouseX() != previous.getMouseX() || input.getMouseY() != previous.getMouseY()) flags |= FLAG_MOUSE;
+        if (input.getButtons() != previous.getButtons()) flags |= FLAG_BUTTONS;
+        if (hasChecksum) flags |= FLAG_CHECKSUM;
+
+        buffer.put((byte) flags);
+        if ((flags & FLAG_DELTA) != 0) buffer.putFloat(deltaTime);
+        if ((flags & FLAG_KEYS) != 0) putKeys(input.pressedKeys(keys));
+        if ((flags & FLAG_JUST_PRESSED) != 0) putKeys(input.justPressedKeys(keys));
+        if ((flags & FLAG_MOUSE) != 0) {
+            putVarInt(zigzag(input.getMouseX() - previous.getMouseX()));
+            putVarInt(zigzag(input.getMouseY() - previous.getMouseY()));
+        }
+        if ((flags & FLAG_BUTTONS) != 0) buffer.put((byte) input.getButtons());
+        if (hasChecksum) buffer.putLong(checksum);
+
+        previous.set(input);
+        previousDelta = deltaTime;
+        ticks++;
+    }
+
+    private void putKeys(int count) {
+        putVarInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) keys[i]);
+        }
+    }
+
+    private void putVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    // Bytes handed to the channel so far; call flush() first for an exact total
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
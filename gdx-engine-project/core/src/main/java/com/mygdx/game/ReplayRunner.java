@@ -0,0 +1,144 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a recorded log back through a scheduler: each tick's input goes into the
+ * ReplayInputManager, the scheduler ticks with the recorded delta, and the world's
+ * StateChecksum is compared with the recorded one when the log has it. The world must
+ * be built the same way as when recording. By default ticks run back to back, as fast
+ * as the machine allows. setSpeed paces them against the recorded deltas instead.
+ */
+public class ReplayRunner {
+    private final SystemScheduler scheduler;
+    private final ReplayInputManager input;
+    private final EntityManager entityManager;
+    private final InputSnapshot snapshot = new InputSnapshot();
+    private float speed;
+    private boolean stopOnMismatch = true;
+
+    public ReplayRunner(SystemScheduler scheduler, ReplayInputManager input, EntityManager entityManager) {
+        this.scheduler = scheduler;
+        this.input = input;
+        this.entityManager = entityManager;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    // Multiple of real time to play at, e.g. 1 for real time or 4 for four times faster; 0 is unthrottled
+    public void setSpeed(float speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Replay speed must not be negative: " + speed);
+        }
+        this.speed = speed;
+    }
+
+    public boolean isStopOnMismatch() {
+        return stopOnMismatch;
+    }
+
+    public void setStopOnMismatch(boolean stopOnMismatch) {
+        this.stopOnMismatch = stopOnMismatch;
+    }
+
+    public Result run(ReplayReader reader) throws IOException {
+        Result result = new Result();
+        long start = System.nanoTime();
+        double simulatedSeconds = 0;
+        while (reader.next(snapshot)) {
+            input.setSnapshot(snapshot);
+            scheduler.tick(reader.getDeltaTime());
+            simulatedSeconds += reader.getDeltaTime();
+            result.ticks++;
+
+            if (reader.hasChecksum()) {
+                result.verifiedTicks++;
+                long actual = StateChecksum.compute(entityManager);
+                if (actual != reader.getChecksum()) {
+                    result.mismatchedTicks++;
+                    if (result.firstMismatchTick == -1) {
+                        result.firstMismatchTick = result.ticks - 1;
+                        result.expectedChecksum = reader.getChecksum();
+                        result.actualChecksum = actual;
+                    }
+                    if (stopOnMismatch) break;
+                }
+            }
+
+            if (speed > 0) {
+                long wait = start + (long) (simulatedSeconds / speed * 1e9) - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        result.simulatedSeconds = simulatedSeconds;
+        return result;
+    }
+
+    public static class Result {
+        private long ticks;
+        private long verifiedTicks;
+        private long mismatchedTicks;
+        private long firstMismatchTick = -1;
+        private long expectedChecksum;
+        private long actualChecksum;
+        private long elapsedNanos;
+        private double simulatedSeconds;
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public long getVerifiedTicks() {
+            return verifiedTicks;
+        }
+
+        public long getMismatchedTicks() {
+            return mismatchedTicks;
+        }
+
+        // Zero-based tick where the state first diverged, -1 if every checked tick matched
+        public long getFirstMismatchTick() {
+            return firstMismatchTick;
+        }
+
+        public long getExpectedChecksum() {
+            return expectedChecksum;
+        }
+
+        public long getActualChecksum() {
+            return actualChecksum;
+        }
+
+        public boolean isDeterministic() {
+            return firstMismatchTick == -1;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getSimulatedSeconds() {
+            return simulatedSeconds;
+        }
+
+        // Simulated time per wall-clock time; above 1 means faster than real time
+        public double getSpeedup() {
+            return elapsedNanos == 0 ? 0 : simulatedSeconds / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            String verdict = verifiedTicks == 0 ? "no checksums recorded"
+                : isDeterministic() ? "all " + verifiedTicks + " checksums matched"
+                : String.format(Locale.ROOT, "diverged at tick %d (expected %016x, got %016x)",
+                    firstMismatchTick, expectedChecksum, actualChecksum);
+            return String.format(Locale.ROOT, "ticks=%d simulated=%.1fs elapsed=%.1fms speedup=%.1fx %s",
+                ticks, simulatedSeconds, elapsedNanos / 1e6, getSpeedup(), verdict);
+        }
+    }
+}
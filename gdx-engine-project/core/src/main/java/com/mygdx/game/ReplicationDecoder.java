@@ -0,0 +1,226 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Observer side of ReplicationManager: applies frames to a mirror EntityManager. Each
+ * replicated entity gets a mirror with a TransformComponent, plus a PhysicsComponent
+ * if the original has one. Mirrors are keyed by the entity index on the server.
+ * Deltas that arrive before the first keyframe are ignored. Additions and removals
+ * are committed to the mirror manager at the end of every frame.
+ */
+public class ReplicationDecoder {
+    private static final int FIELD_COUNT = ReplicationManager.FIELD_COUNT;
+    private static final int INDEX_MASK = (1 << EntityManager.INDEX_BITS) - 1;
+
+    private final EntityManager mirror;
+    private final BitReader reader = new BitReader();
+    private final int[] fields = new int[FIELD_COUNT];
+    private float positionPrecision;
+    private float velocityPrecision;
+    private boolean synced;
+    private int tick;
+    private long framesApplied;
+    private long framesSkipped;
+    private long bytesReceived;
+
+    // Per server index
+    private Entity[] entities = new Entity[256];
+    private int[] handles = new int[256];
+    private int[][] values = new int[FIELD_COUNT][256];
+    private int[] seen = new int[256];
+    private int stamp;
+    private int highestIndex = -1;
+
+    // Length-prefixed stream from a ChannelReplicationSink, see receive()
+    private ByteBuffer incoming;
+
+    public ReplicationDecoder(EntityManager mirror) {
+        this.mirror = mirror;
+    }
+
+    // Applies one frame; returns false if it was a delta that arrived before any keyframe
+    public boolean apply(ByteBuffer frame) {
+        bytesReceived += frame.remaining();
+        reader.reset(frame);
+        boolean keyframe = reader.readBit();
+        int frameTick = reader.read(32);
+        if (!keyframe && !synced) {
+            framesSkipped++;
+            return false;
+        }
+
+        if (keyframe) {
+            positionPrecision = Float.intBitsToFloat(reader.read(32));
+            velocityPrecision = Float.intBitsToFloat(reader.read(32));
+            stamp++;
+        } else {
+            int index = -1;
+            for (int count = reader.readVarBits(); count > 0; count--) {
+                index += reader.readVarBits() + 1;
+                despawn(index);
+            }
+        }
+
+        int index = -1;
+        for (int count = reader.readVarBits(); count > 0; count--) {
+            index += reader.readVarBits() + 1;
+            boolean spawn = keyframe || reader.readBit();
+            if (spawn) {
+                int handle = reader.read(32);
+                boolean hasPhysics = reader.readBit();
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    fields[f] = reader.readSigned();
+                }
+                spawn(index, handle, hasPhysics);
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    values[f][index] = fields[f];
+                }
+            } else {
+                int mask = reader.read(FIELD_COUNT);
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    if ((mask & (1 << f)) != 0) values[f][index] += reader.readSigned();
+                }
+            }
+            seen[index] = stamp;
+            write(index);
+        }
+
+        if (keyframe) {
+            // Anything the keyframe didn't mention is gone on the server
+            for (int i = 0; i <= highestIndex; i++) {
+                if (entities[i] != null && seen[i] != stamp) despawn(i);
+            }
+        }
+        mirror.update(0);
+        synced = true;
+        tick = frameTick;
+        framesApplied++;
+        return true;
+    }
+
+    /**
+     * Reads what the channel has available and applies every complete length-prefixed
+     * frame. Works with non-blocking channels; returns the number of frames applied,
+     * or -1 once the channel has reached end of stream.
+     */
+    public int receive(ReadableByteChannel channel) throws IOException {
+        if (incoming == null) {
+            incoming = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int read = channel.read(incoming);
+        incoming.flip();
+        int applied = 0;
+        while (incoming.remaining() >= 4) {
+            int length = incoming.getInt(incoming.position());
+            if (length < 0) {
+                throw new IOException("Corrupt replication stream: frame length " + length);
+            }
+            if (length + 4 > incoming.capacity()) {
+                incoming.compact();
+                incoming.flip();
+                ByteBuffer larger = ByteBuffer.allocateDirect(length + 4).order(ByteOrder.LITTLE_ENDIAN);
+                larger.put(incoming);
+                incoming = larger;
+                return applied;
+            }
+            if (incoming.remaining() < length + 4) break;
+
+            int end = incoming.position() + 4 + length;
+            ByteBuffer frame = incoming.duplicate();
+            frame.position(incoming.position() + 4);
+            frame.limit(end);
+            apply(frame);
+            bytesReceived += 4;
+            incoming.position(end);
+            applied++;
+        }
+        incoming.compact();
+        return read < 0 && applied == 0 ? -1 : applied;
+    }
+
+    private void spawn(int index, int handle, boolean hasPhysics) {
+        ensureCapacity(index + 1);
+        Entity entity = entities[index];
+        if (entity != null && (handles[index] != handle
+                || (entity.getComponent(PhysicsComponent.class) != null) != hasPhysics)) {
+            despawn(index);
+            entity = null;
+        }
+        if (entity == null) {
+            entity = new Entity();
+            entity.addComponent(new TransformComponent(0, 0, 0, 0));
+            if (hasPhysics) entity.addComponent(new PhysicsComponent(0, 0, 0));
+            mirror.addEntity(entity);
+            entities[index] = entity;
+            handles[index] = handle;
+            highestIndex = Math.max(highestIndex, index);
+        }
+    }
+
+    private void despawn(int index) {
+        if (index >= entities.length || entities[index] == null) return;
+        mirror.removeEntity(entities[index]);
+        entities[index] = null;
+    }
+
+    private void write(int index) {
+        Entity entity = entities[index];
+        TransformComponent transform = entity.getComponent(TransformComponent.class);
+        transform.setPosition(values[ReplicationManager.POSITION_X][index] * positionPrecision,
+            values[ReplicationManager.POSITION_Y][index] * positionPrecision);
+        transform.setSize(values[ReplicationManager.WIDTH][index] * positionPrecision,
+            values[ReplicationManager.HEIGHT][index] * positionPrecision);
+        transform.setRotation(Float.intBitsToFloat(values[ReplicationManager.ROTATION][index]));
+
+        PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+        if (physics != null) {
+            physics.setVelocity(values[ReplicationManager.VELOCITY_X][index] * velocityPrecision,
+                values[ReplicationManager.VELOCITY_Y][index] * velocityPrecision);
+            physics.setMass(Float.intBitsToFloat(values[ReplicationManager.MASS][index]));
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= entities.length) return;
+        int grown = Math.max(needed, entities.length * 2);
+        entities = Arrays.copyOf(entities, grown);
+        handles = Arrays.copyOf(handles, grown);
+        seen = Arrays.copyOf(seen, grown);
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            values[f] = Arrays.copyOf(values[f], grown);
+        }
+    }
+
+    // Mirror of the entity with this handle on the server, or null
+    public Entity getMirror(int serverHandle) {
+        int index = serverHandle & INDEX_MASK;
+        if (index >= entities.length || entities[index] == null || handles[index] != serverHandle) return null;
+        return entities[index];
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    // Server tick of the last applied frame
+    public int getTick() {
+        return tick;
+    }
+
+    public long getFramesApplied() {
+        return framesApplied;
+    }
+
+    public long getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+}
@@ -0,0 +1,342 @@
+package com.mygdx.game;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Encodes the world each tick for remote observers. Each entity's transform and
+ * physics state is quantized to ints: positions and sizes to positionPrecision,
+ * velocities to velocityPrecision, and rotation and mass as their float bits. Only
+ * the fields whose quantized value changed since the last frame are sent. Values are
+ * zigzag deltas, bit-packed with a six bit length prefix. Every keyframeInterval ticks
+ * a keyframe carries the full state, so a new observer or one that missed frames can
+ * resynchronize. ReplicationDecoder applies the frames to a mirror EntityManager.
+ *
+ * Runs after CollisionManager, so it sends what the collision callbacks left behind.
+ *
+ * Frame: keyframe bit, 32 bit tick. A keyframe then has both precisions as float bits
+ * and a count of entities. A delta has a count of removed entities and their index
+ * gaps, then a count of changed entities. Entities are in index order, each starting
+ * with the gap from the previous index. A keyframe entity, or a delta entity with
+ * its spawn bit set, carries the 32 bit handle, a physics bit and every field. Other
+ * delta entities carry an eight bit mask of changed fields and those deltas.
+ */
+public class ReplicationManager implements IManager {
+    static final int POSITION_X = 0;
+    static final int POSITION_Y = 1;
+    static final int VELOCITY_X = 2;
+    static final int VELOCITY_Y = 3;
+    static final int WIDTH = 4;
+    static final int HEIGHT = 5;
+    static final int ROTATION = 6;
+    static final int MASS = 7;
+    static final int FIELD_COUNT = 8;
+
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 30;
+    private static final float DEFAULT_PRECISION = 1f / 64f;
+    private static final Set<Class<? extends Component>> READS = Collections.unmodifiableSet(
+        new HashSet<Class<? extends Component>>(Arrays.asList(TransformComponent.class, PhysicsComponent.class)));
+    private static final Set<Class<? extends IManager>> RUNS_AFTER =
+        Collections.<Class<? extends IManager>>singleton(CollisionManager.class);
+
+    private final EntityManager entityManager;
+    private final List<ReplicationSink> sinks = new ArrayList<>();
+    private final BitWriter writer = new BitWriter();
+    private int keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+    private float positionPrecision = DEFAULT_PRECISION;
+    private float velocityPrecision = DEFAULT_PRECISION;
+    private boolean keyframeRequested = true;
+    private int tick;
+
+    // Per entity index: the state observers have, and the state captured this tick
+    private int capacity;
+    private int highestIndex = -1;
+    private final int[][] sent = new int[FIELD_COUNT][];
+    private final int[][] current = new int[FIELD_COUNT][];
+    private int[] sentHandle;
+    private boolean[] sentPhysics;
+    private boolean[] known;
+    private int[] currentHandle;
+    private boolean[] currentPhysics;
+    private int[] seen;
+    private int stamp;
+    private int[] changed;
+    private int[] removed;
+
+    private long frames;
+    private long keyframes;
+    private long bytesSent;
+    private long keyframeBytes;
+    private int lastFrameBytes;
+    private int maxFrameBytes;
+
+    public ReplicationManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        ensureCapacity(256);
+    }
+
+    public void addSink(ReplicationSink sink) {
+        sinks.add(sink);
+        // A new observer has nothing to apply deltas to
+        keyframeRequested = true;
+    }
+
+    public void removeSink(ReplicationSink sink) {
+        sinks.remove(sink);
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    // Ticks between keyframes; 0 sends keyframes only when a sink asks for one
+    public void setKeyframeInterval(int keyframeInterval) {
+        if (keyframeInterval < 0) {
+            throw new IllegalArgumentException("Keyframe interval must not be negative: " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public float getPositionPrecision() {
+        return positionPrecision;
+    }
+
+    // Takes effect from the next keyframe, which carries the precisions
+    public void setPositionPrecision(float positionPrecision) {
+        if (positionPrecision <= 0) {
+            throw new IllegalArgumentException("Precision must be positive: " + positionPrecision);
+        }
+        this.positionPrecision = positionPrecision;
+        keyframeRequested = true;
+    }
+
+    public float getVelocityPrecision() {
+        return velocityPrecision;
+    }
+
+    public void setVelocityPrecision(float velocityPrecision) {
+        if (velocityPrecision <= 0) {
+            throw new IllegalArgumentException("Precision must be positive: " + velocityPrecision);
+        }
+        this.velocityPrecision = velocityPrecision;
+        keyframeRequested = true;
+    }
+
+    public void requestKeyframe() {
+        keyframeRequested = true;
+    }
+
+    @Override
+    public void initialize() { }
+
+    @Override
+    public void update(float deltaTime) {
+        if (sinks.isEmpty()) return;
+
+        boolean keyframe = keyframeRequested || (keyframeInterval > 0 && tick % keyframeInterval == 0);
+        for (int i = 0; i < sinks.size(); i++) {
+            if (sinks.get(i).needsKeyframe()) keyframe = true;
+        }
+
+        int changedCount = capture(keyframe);
+        int removedCount = 0;
+        for (int index = 0; index <= highestIndex; index++) {
+            if (known[index] && seen[index] != stamp) {
+                removed[removedCount++] = index;
+                known[index] = false;
+            }
+        }
+        // Entities are captured in list order; index order gives small gaps
+        Arrays.sort(changed, 0, changedCount);
+
+        writer.clear();
+        writer.writeBit(keyframe);
+        writer.write(tick, 32);
+        if (keyframe) {
+            writer.write(Float.floatToIntBits(positionPrecision), 32);
+            writer.write(Float.floatToIntBits(velocityPrecision), 32);
+        } else {
+            writer.writeVarBits(removedCount);
+            int previous = -1;
+            for (int i = 0; i < removedCount; i++) {
+                writer.writeVarBits(removed[i] - previous - 1);
+                previous = removed[i];
+            }
+        }
+        writer.writeVarBits(changedCount);
+        int previous = -1;
+        for (int i = 0; i < changedCount; i++) {
+            int index = changed[i];
+            writer.writeVarBits(index - previous - 1);
+            previous = index;
+            writeEntity(index, keyframe);
+        }
+
+        ByteBuffer frame = writer.toBuffer();
+        int length = frame.remaining();
+        for (int i = 0; i < sinks.size(); i++) {
+            frame.limit(length);
+            frame.position(0);
+            sinks.get(i).send(frame, keyframe);
+        }
+
+        frames++;
+        bytesSent += length;
+        lastFrameBytes = length;
+        maxFrameBytes = Math.max(maxFrameBytes, length);
+        if (keyframe) {
+            keyframes++;
+            keyframeBytes += length;
+        }
+        keyframeRequested = false;
+        tick++;
+    }
+
+    // Quantizes every entity with a transform into current and lists the ones to send
+    private int capture(boolean keyframe) {
+        stamp++;
+        int changedCount = 0;
+        List<Entity> entities = entityManager.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            TransformComponent transform = entity.getComponent(TransformComponent.class);
+            if (transform == null) continue;
+            int index = entity.index;
+            if (index >= capacity) ensureCapacity(index + 1);
+            highestIndex = Math.max(highestIndex, index);
+
+            PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+            current[POSITION_X][index] = quantize(transform.getPositionX(), positionPrecision);
+            current[POSITION_Y][index] = quantize(transform.getPositionY(), positionPrecision);
+            current[WIDTH][index] = quantize(transform.getWidth(), positionPrecision);
+            current[HEIGHT][index] = quantize(transform.getHeight(), positionPrecision);
+            current[ROTATION][index] = Float.floatToIntBits(transform.getRotation());
+            current[VELOCITY_X][index] = physics == null ? 0 : quantize(physics.getVelocityX(), velocityPrecision);
+            current[VELOCITY_Y][index] = physics == null ? 0 : quantize(physics.getVelocityY(), velocityPrecision);
+            current[MASS][index] = physics == null ? 0 : Float.floatToIntBits(physics.getMass());
+            currentHandle[index] = entity.getId();
+            currentPhysics[index] = physics != null;
+            seen[index] = stamp;
+
+            if (keyframe || isSpawn(index) || changedFields(index) != 0) {
+                changed[changedCount++] = index;
+            }
+        }
+        return changedCount;
+    }
+
+    private void writeEntity(int index, boolean keyframe) {
+        boolean spawn = keyframe || isSpawn(index);
+        if (!keyframe) writer.writeBit(spawn);
+        if (spawn) {
+            writer.write(currentHandle[index], 32);
+            writer.writeBit(currentPhysics[index]);
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                writer.writeSigned(current[f][index]);
+            }
+        } else {
+            int mask = changedFields(index);
+            writer.write(mask, FIELD_COUNT);
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                if ((mask & (1 << f)) != 0) writer.writeSigned(current[f][index] - sent[f][index]);
+            }
+        }
+
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            sent[f][index] = current[f][index];
+        }
+        sentHandle[index] = currentHandle[index];
+        sentPhysics[index] = currentPhysics[index];
+        known[index] = true;
+    }
+
+    // New to observers, or a different entity (or component set) under a recycled index
+    private boolean isSpawn(int index) {
+        return !known[index] || sentHandle[index] != currentHandle[index] || sentPhysics[index] != currentPhysics[index];
+    }
+
+    private int changedFields(int index) {
+        int mask = 0;
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            if (current[f][index] != sent[f][index]) mask |= 1 << f;
+        }
+        return mask;
+    }
+
+    // Math.round saturates, so values beyond the int range clamp instead of wrapping
+    static int quantize(float value, float precision) {
+        return Math.round(value / precision);
+    }
+
+    private void ensureCapacity(int needed) {
+        int grown = Math.max(needed, capacity * 2);
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            sent[f] = sent[f] == null ? new int[grown] : Arrays.copyOf(sent[f], grown);
+            current[f] = current[f] == null ? new int[grown] : Arrays.copyOf(current[f], grown);
+        }
+        sentHandle = sentHandle == null ? new int[grown] : Arrays.copyOf(sentHandle, grown);
+        sentPhysics = sentPhysics == null ? new boolean[grown] : Arrays.copyOf(sentPhysics, grown);
+        known = known == null ? new boolean[grown] : Arrays.copyOf(known, grown);
+        currentHandle = currentHandle == null ? new int[grown] : Arrays.copyOf(currentHandle, grown);
+        currentPhysics = currentPhysics == null ? new boolean[grown] : Arrays.copyOf(currentPhysics, grown);
+        seen = seen == null ? new int[grown] : Arrays.copyOf(seen, grown);
+        // Grows mid-capture, so keep the indices already listed
+        changed = changed == null ? new int[grown] : Arrays.copyOf(changed, grown);
+        removed = removed == null ? new int[grown] : Arrays.copyOf(removed, grown);
+        capacity = grown;
+    }
+
+    @Override
+    public void shutdown() {
+        sinks.clear();
+    }
+
+    @Override
+    public Set<Class<? extends Component>> getReadTypes() {
+        return READS;
+    }
+
+    @Override
+    public Set<Class<? extends IManager>> getRunsAfter() {
+        return RUNS_AFTER;
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    public long getKeyframeCount() {
+        return keyframes;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getKeyframeBytes() {
+        return keyframeBytes;
+    }
+
+    public int getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    public double getAverageBytesPerTick() {
+        return frames == 0 ? 0 : (double) bytesSent / frames;
+    }
+
+    // Average over delta frames only, the steady-state cost between keyframes
+    public double getAverageDeltaBytes() {
+        long deltas = frames - keyframes;
+        return deltas == 0 ? 0 : (double) (bytesSent - keyframeBytes) / deltas;
+    }
+}
@@ -0,0 +1,14 @@
+package com.mygdx.game;
+
+import java.nio.ByteBuffer;
+
+/** Destination for the frames ReplicationManager encodes, one per tick. */
+public interface ReplicationSink {
+    // The frame's bytes are between position and limit and are reused once this returns
+    void send(ByteBuffer frame, boolean keyframe);
+
+    // True when the next frame must be a keyframe, e.g. after frames were dropped or an observer joined
+    default boolean needsKeyframe() {
+        return false;
+    }
+}
@@ -0,0 +1,226 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform-grid broad phase. Every frame the enabled colliders are hashed into the
+ * cells their bounds cover and candidate pairs are collected from shared cells.
+ * Pairs of layers masked off in the CollisionMatrix are skipped, and the rest are
+ * sorted and de-duplicated so they come out in the same order as the brute-force loop.
+ * Colliders too large to hash cheaply, far outside the cell range or with non-finite
+ * bounds go into an overflow list instead and are paired with every other collider.
+ */
+public class SpatialHashGrid {
+    private static final int EMPTY = -1;
+    // Colliders covering more cells than this are paired directly instead of hashed
+    private static final int MAX_CELLS_PER_COLLIDER = 1024;
+    // Cell coordinates stay well inside int range so the cell loops can't overflow
+    private static final double MAX_CELL_COORD = 1 << 30;
+
+    private float cellSize;
+    private CollisionMatrix matrix;
+    private float inverseCellSize;
+
+    // Open-addressing table from packed cell coordinates to the head of an entry list
+    private long[] cellKeys;
+    private int[] cellHeads;
+    private int[] usedSlots;
+    private int usedCount;
+
+    // Singly linked entries, one per (collider, cell) it covers
+    private int[] entryColliders;
+    private int[] entryLayers;
+    private boolean[] entryStatic;
+    private int[] entryNext;
+    private int entryCount;
+
+    // Indices of the colliders left out of the grid, and the list they index into
+    private int[] overflow = new int[16];
+    private int overflowCount;
+    private List<CollisionComponent> colliders;
+
+    private PairBuffer pairs;
+
+    public SpatialHashGrid(float cellSize) {
+        setCellSize(cellSize);
+        allocateTable(256);
+        this.entryColliders = new int[256];
+        this.entryLayers = new int[256];
+        this.entryStatic = new boolean[256];
+        this.entryNext = new int[256];
+        this.pairs = new PairBuffer(256);
+    }
+
+    public void setCellSize(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    // Rebuilds the grid from the given colliders and collects candidate pairs
+    public void build(List<CollisionComponent> colliders, CollisionMatrix matrix) {
+        clear();
+        this.matrix = matrix;
+        this.colliders = colliders;
+        for (int i = 0; i < colliders.size(); i++) {
+            CollisionComponent collider = colliders.get(i);
+            if (!collider.isEnabled()) continue;
+            // Layers masked off from everything never enter the grid
+            if (matrix.getMask(collider.getCollisionLayer()) == 0) continue;
+
+            Rectangle bounds = collider.getBounds();
+            if (bounds == null) continue;
+            boolean isStatic = collider.isStatic();
+
+            double cellMinX = cellCoord(bounds.x);
+            double cellMinY = cellCoord(bounds.y);
+            double cellMaxX = cellCoord(bounds.x + bounds.width);
+            double cellMaxY = cellCoord(bounds.y + bounds.height);
+            // Written so NaN fails the checks too
+            if (!(Math.max(Math.abs(cellMinX), Math.abs(cellMaxX)) < MAX_CELL_COORD
+                    && Math.max(Math.abs(cellMinY), Math.abs(cellMaxY)) < MAX_CELL_COORD
+                    && (cellMaxX - cellMinX + 1) * (cellMaxY - cellMinY + 1) <= MAX_CELLS_PER_COLLIDER)) {
+                if (overflowCount == overflow.length) overflow = Arrays.copyOf(overflow, overflowCount * 2);
+                overflow[overflowCount++] = i;
+                continue;
+            }
+
+            int minX = (int) cellMinX;
+            int minY = (int) cellMinY;
+            int maxX = (int) cellMaxX;
+            int maxY = (int) cellMaxY;
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cx = minX; cx <= maxX; cx++) {
+                    insert(cellKey(cx, cy), i, collider.getCollisionLayer(), isStatic);
+                }
+            }
+        }
+        collectPairs();
+        this.colliders = null;
+    }
+
+    public PairBuffer getPairs() {
+        return pairs;
+    }
+
+    private double cellCoord(float value) {
+        return Math.floor((double) value * inverseCellSize);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private void clear() {
+        for (int i = 0; i < usedCount; i++) {
+            cellHeads[usedSlots[i]] = EMPTY;
+        }
+        usedCount = 0;
+        entryCount = 0;
+        overflowCount = 0;
+        pairs.clear();
+    }
+
+    private void insert(long key, int collider, int layer, boolean isStatic) {
+        if ((usedCount + 1) * 2 > cellKeys.length) {
+            grow();
+        }
+        int mask = cellKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (cellHeads[slot] != EMPTY && cellKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (cellHeads[slot] == EMPTY) {
+            cellKeys[slot] = key;
+            usedSlots[usedCount++] = slot;
+        }
+
+        if (entryCount == entryColliders.length) {
+            entryColliders = Arrays.copyOf(entryColliders, entryCount * 2);
+            entryLayers = Arrays.copyOf(entryLayers, entryCount * 2);
+            entryStatic = Arrays.copyOf(entryStatic, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        entryColliders[entryCount] = collider;
+        entryLayers[entryCount] = layer;
+        entryStatic[entryCount] = isStatic;
+        entryNext[entryCount] = cellHeads[slot];
+        cellHeads[slot] = entryCount++;
+    }
+
+    private void collectPairs() {
+        for (int s = 0; s < usedCount; s++) {
+            for (int a = cellHeads[usedSlots[s]]; a != EMPTY; a = entryNext[a]) {
+                long mask = matrix.getMask(entryLayers[a]);
+                for (int b = entryNext[a]; b != EMPTY; b = entryNext[b]) {
+                    if ((mask & (1L << entryLayers[b])) == 0) continue;
+                    // Two sleeping bodies can't have moved into or out of contact
+                    if (entryStatic[a] && entryStatic[b]) continue;
+                    pairs.add(entryColliders[a], entryColliders[b]);
+                }
+            }
+        }
+
+        for (int k = 0; k < overflowCount; k++) {
+            collectOverflowPairs(overflow[k]);
+        }
+
+        // Colliders spanning several cells show up once per shared cell
+        pairs.sortUnique();
+    }
+
+    // Pairs an overflow collider with every other collider the grid would have considered
+    private void collectOverflowPairs(int index) {
+        CollisionComponent collider = colliders.get(index);
+        long mask = matrix.getMask(collider.getCollisionLayer());
+        boolean isStatic = collider.isStatic();
+        for (int j = 0; j < colliders.size(); j++) {
+            if (j == index) continue;
+            CollisionComponent other = colliders.get(j);
+            if (!other.isEnabled() || (mask & (1L << other.getCollisionLayer())) == 0) continue;
+            if (isStatic && other.isStatic()) continue;
+            if (other.getBounds() == null) continue;
+            pairs.add(index, j);
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        int[] oldUsed = usedSlots;
+        int oldUsedCount = usedCount;
+
+        allocateTable(oldKeys.length * 2);
+        int mask = cellKeys.length - 1;
+        for (int i = 0; i < oldUsedCount; i++) {
+            int oldSlot = oldUsed[i];
+            int slot = hash(oldKeys[oldSlot]) & mask;
+            while (cellHeads[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            cellKeys[slot] = oldKeys[oldSlot];
+            cellHeads[slot] = oldHeads[oldSlot];
+            usedSlots[usedCount++] = slot;
+        }
+    }
+
+    private void allocateTable(int capacity) {
+        cellKeys = new long[capacity];
+        cellHeads = new int[capacity];
+        usedSlots = new int[capacity / 2];
+        usedCount = 0;
+        Arrays.fill(cellHeads, EMPTY);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
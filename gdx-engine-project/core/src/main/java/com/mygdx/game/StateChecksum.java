@@ -0,0 +1,47 @@
+package com.mygdx.game;
+
+import java.util.List;
+
+/**
+ * Hash of the simulation state that replays compare tick by tick: every entity's
+ * handle, active flag, position, velocity and sleep state, in EntityManager order.
+ * Floats are hashed by their bits, so any divergence shows up, not just visible ones.
+ */
+public final class StateChecksum {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private StateChecksum() { }
+
+    public static long compute(EntityManager entityManager) {
+        List<Entity> entities = entityManager.getEntities();
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            hash = mix(hash, entity.getId());
+            hash = mix(hash, entity.isActive() ? 1 : 0);
+
+            TransformComponent transform = entity.getComponent(TransformComponent.class);
+            if (transform != null) {
+                hash = mix(hash, Float.floatToIntBits(transform.getPositionX()));
+                hash = mix(hash, Float.floatToIntBits(transform.getPositionY()));
+            }
+            PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+            if (physics != null) {
+                hash = mix(hash, Float.floatToIntBits(physics.getVelocityX()));
+                hash = mix(hash, Float.floatToIntBits(physics.getVelocityY()));
+                hash = mix(hash, physics.isSleeping() ? 1 : 0);
+            }
+        }
+        // Final avalanche so nearby states don't give nearby checksums
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * PRIME;
+    }
+}
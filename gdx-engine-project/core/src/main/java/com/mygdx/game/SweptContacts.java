@@ -0,0 +1,128 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Time-of-impact hits from the continuous pass, keyed like ContactCache by collider id
+ * pair. The normal is stored as seen by the lower id and flipped for the other side.
+ */
+class SweptContacts {
+    private long[] keys;
+    private float[] timeOfImpact;
+    private float[] normalX;
+    private float[] normalY;
+    private boolean[] dispatched;
+    private int size;
+
+    SweptContacts(int capacity) {
+        keys = new long[capacity];
+        timeOfImpact = new float[capacity];
+        normalX = new float[capacity];
+        normalY = new float[capacity];
+        dispatched = new boolean[capacity];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // normalX/normalY are the ones reported to idA
+    void add(int idA, int idB, float toi, float nx, float ny) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            timeOfImpact = Arrays.copyOf(timeOfImpact, capacity);
+            normalX = Arrays.copyOf(normalX, capacity);
+            normalY = Arrays.copyOf(normalY, capacity);
+            dispatched = Arrays.copyOf(dispatched, capacity);
+        }
+        float sign = idA < idB ? 1 : -1;
+        keys[size] = ContactCache.key(idA, idB);
+        timeOfImpact[size] = toi;
+        normalX[size] = nx * sign;
+        normalY[size] = ny * sign;
+        dispatched[size] = false;
+        size++;
+    }
+
+    // Orders hits by key and keeps the earliest when both colliders of a pair swept it
+    void sortUnique() {
+        // Shell sort over the parallel arrays; usually only a handful of hits per tick
+        for (int gap = size / 2; gap > 0; gap /= 2) {
+            for (int i = gap; i < size; i++) {
+                for (int j = i; j >= gap && before(j, j - gap); j -= gap) {
+                    swap(j, j - gap);
+                }
+            }
+        }
+
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique > 0 && keys[unique - 1] == keys[i]) continue;
+            if (unique != i) swap(unique, i);
+            unique++;
+        }
+        size = unique;
+    }
+
+    private boolean before(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && timeOfImpact[a] < timeOfImpact[b]);
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        float toi = timeOfImpact[a];
+        timeOfImpact[a] = timeOfImpact[b];
+        timeOfImpact[b] = toi;
+        float nx = normalX[a];
+        normalX[a] = normalX[b];
+        normalX[b] = nx;
+        float ny = normalY[a];
+        normalY[a] = normalY[b];
+        normalY[b] = ny;
+        boolean done = dispatched[a];
+        dispatched[a] = dispatched[b];
+        dispatched[b] = done;
+    }
+
+    // Index of the hit for the pair, or -1; only valid after sortUnique()
+    int find(int idA, int idB) {
+        int index = Arrays.binarySearch(keys, 0, size, ContactCache.key(idA, idB));
+        return index < 0 ? -1 : index;
+    }
+
+    int getFirst(int index) {
+        return (int) (keys[index] >>> 32);
+    }
+
+    int getSecond(int index) {
+        return (int) keys[index];
+    }
+
+    float getTimeOfImpact(int index) {
+        return timeOfImpact[index];
+    }
+
+    // Normal as seen by the collider with the given id
+    float getNormalX(int index, int id) {
+        return id == getFirst(index) ? normalX[index] : -normalX[index];
+    }
+
+    float getNormalY(int index, int id) {
+        return id == getFirst(index) ? normalY[index] : -normalY[index];
+    }
+
+    boolean isDispatched(int index) {
+        return dispatched[index];
+    }
+
+    void markDispatched(int index) {
+        dispatched[index] = true;
+    }
+}
@@ -0,0 +1,269 @@
+package com.mygdx.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs registered managers each tick, in parallel where their declared component
+ * reads and writes don't conflict. Structural managers run first, one at a time, so
+ * entity additions and removals are applied at a safe point before anything
+ * iterates. The rest are ordered by priority, then registration order, except that a
+ * manager always comes after the ones its getRunsAfter() names. A manager is placed in
+ * the first stage after every earlier manager it conflicts with or runs after. Each
+ * stage runs on the pool and ends with a barrier.
+ * An attached FrameProfiler times every update the scheduler makes.
+ */
+public class SystemScheduler {
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<Entry> structural = new ArrayList<>();
+    private final List<List<Entry>> stages = new ArrayList<>();
+    private final List<Entry> dueTasks = new ArrayList<>();
+    private ForkJoinPool pool;
+    private FrameProfiler profiler;
+    private boolean dirty;
+    private long tick;
+    private float stageDeltaTime;
+
+    private final RecursiveAction stageRoot = new RecursiveAction() {
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(dueTasks);
+        }
+    };
+
+    public SystemScheduler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SystemScheduler(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void register(IManager manager) {
+        Entry entry = new Entry(manager, entries.size());
+        if (profiler != null) {
+            entry.section = profiler.section(manager);
+        }
+        entries.add(entry);
+        dirty = true;
+    }
+
+    public void unregister(IManager manager) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).manager == manager) {
+                entries.remove(i);
+                dirty = true;
+                return;
+            }
+        }
+    }
+
+    public void tick(float deltaTime) {
+        if (dirty) {
+            buildStages();
+        }
+        boolean profiling = profiler != null && profiler.isEnabled();
+        if (profiling) {
+            profiler.beginTick(tick);
+        }
+
+        // Barrier: structural changes land before any other manager runs
+        for (int i = 0; i < structural.size(); i++) {
+            Entry entry = structural.get(i);
+            if (entry.isDue(tick)) {
+                entry.run(deltaTime);
+            }
+        }
+
+        stageDeltaTime = deltaTime;
+        for (int s = 0; s < stages.size(); s++) {
+            runStage(stages.get(s));
+        }
+        if (profiling) {
+            profiler.endTick();
+        }
+        tick++;
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).section = profiler != null ? profiler.section(entries.get(i).manager) : null;
+        }
+    }
+
+    public int getStageCount() {
+        if (dirty) {
+            buildStages();
+        }
+        return stages.size();
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    private void runStage(List<Entry> stage) {
+        dueTasks.clear();
+        for (int i = 0; i < stage.size(); i++) {
+            if (stage.get(i).isDue(tick)) {
+                dueTasks.add(stage.get(i));
+            }
+        }
+
+        if (dueTasks.size() == 1) {
+            dueTasks.get(0).run(stageDeltaTime);
+        } else if (dueTasks.size() > 1) {
+            for (int i = 0; i < dueTasks.size(); i++) {
+                dueTasks.get(i).reinitialize();
+                dueTasks.get(i).deltaTime = stageDeltaTime;
+            }
+            stageRoot.reinitialize();
+            pool.invoke(stageRoot);
+        }
+    }
+
+    private void buildStages() {
+        List<Entry> ordered = new ArrayList<>(entries);
+        Collections.sort(ordered, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                int byPriority = Integer.compare(a.manager.getPriority(), b.manager.getPriority());
+                return byPriority != 0 ? byPriority : Integer.compare(a.order, b.order);
+            }
+        });
+
+        ordered = orderByRunsAfter(ordered);
+
+        structural.clear();
+        stages.clear();
+        List<Entry> placed = new ArrayList<>();
+        for (Entry entry : ordered) {
+            if (entry.manager.isStructural()) {
+                structural.add(entry);
+                continue;
+            }
+
+            // One stage after the latest earlier manager this one depends on
+            int stage = 0;
+            for (Entry earlier : placed) {
+                if (conflicts(earlier.manager, entry.manager) || runsAfter(entry.manager, earlier.manager)) {
+                    stage = Math.max(stage, earlier.stage + 1);
+                }
+            }
+            entry.stage = stage;
+            while (stages.size() <= stage) {
+                stages.add(new ArrayList<Entry>());
+            }
+            stages.get(stage).add(entry);
+            placed.add(entry);
+        }
+        dirty = false;
+    }
+
+    // Stable: each step takes the first remaining entry whose predecessors are all taken
+    private static List<Entry> orderByRunsAfter(List<Entry> remaining) {
+        List<Entry> ordered = new ArrayList<>(remaining.size());
+        remaining = new ArrayList<>(remaining);
+        while (!remaining.isEmpty()) {
+            int next = -1;
+            for (int i = 0; i < remaining.size() && next == -1; i++) {
+                next = i;
+                for (Entry other : remaining) {
+                    if (other != remaining.get(i) && runsAfter(remaining.get(i).manager, other.manager)) {
+                        next = -1;
+                        break;
+                    }
+                }
+            }
+            if (next == -1) {
+                throw new IllegalStateException("Managers have cyclic runsAfter ordering: " + describe(remaining));
+            }
+            ordered.add(remaining.remove(next));
+        }
+        return ordered;
+    }
+
+    static boolean runsAfter(IManager manager, IManager other) {
+        for (Class<? extends IManager> type : manager.getRunsAfter()) {
+            if (type.isInstance(other)) return true;
+        }
+        return false;
+    }
+
+    private static String describe(List<Entry> entries) {
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) names.append(", ");
+            names.append(entries.get(i).manager.getClass().getSimpleName());
+        }
+        return names.toString();
+    }
+
+    static boolean conflicts(IManager a, IManager b) {
+        if (isUndeclared(a) || isUndeclared(b)) return true;
+        return intersects(a.getWriteTypes(), b.getWriteTypes())
+            || intersects(a.getWriteTypes(), b.getReadTypes())
+            || intersects(a.getReadTypes(), b.getWriteTypes());
+    }
+
+    private static boolean isUndeclared(IManager manager) {
+        return manager.getReadTypes().isEmpty() && manager.getWriteTypes().isEmpty();
+    }
+
+    private static boolean intersects(Set<Class<? extends Component>> a, Set<Class<? extends Component>> b) {
+        for (Class<? extends Component> type : a) {
+            if (b.contains(type)) return true;
+        }
+        return false;
+    }
+
+    private static class Entry extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final IManager manager;
+        final int order;
+        int stage;
+        float deltaTime;
+        FrameProfiler.Section section;
+
+        Entry(IManager manager, int order) {
+            this.manager = manager;
+            this.order = order;
+        }
+
+        // Intervals below 1 mean every tick, both for scheduling and for the delta passed on
+        int interval() {
+            return Math.max(1, manager.getUpdateInterval());
+        }
+
+        boolean isDue(long tick) {
+            return tick % interval() == 0;
+        }
+
+        void run(float tickDelta) {
+            if (section == null || !section.isEnabled()) {
+                manager.update(tickDelta * interval());
+                return;
+            }
+            section.begin();
+            manager.update(tickDelta * interval());
+            section.end();
+        }
+
+        @Override
+        protected void compute() {
+            run(deltaTime);
+        }
+    }
+}
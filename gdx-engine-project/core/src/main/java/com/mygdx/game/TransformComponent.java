@@ -1,11 +1,18 @@
 package com.mygdx.game;
 
 public class TransformComponent extends Component {
-    public float positionX;
-    public float positionY;
-    public float width;
-    public float height;
-    public float rotation;
+    private float positionX;
+    private float positionY;
+    private float width;
+    private float height;
+    private float rotation;
+    // Position at the start of the current fixed step, for render interpolation
+    private float previousX;
+    private float previousY;
+
+    // Set while the owner lives in packed storage; the fields above are stale until unbound
+    private PackedStorage storage;
+    private int slot = -1;
 
     public TransformComponent(float x, float y, float w, float h) {
         this.positionX = x;
@@ -13,8 +20,157 @@ public class TransformComponent extends Component {
         this.width = w;
         this.height = h;
         this.rotation = 0.0f;
+        this.previousX = x;
+        this.previousY = y;
+    }
+
+    public float getPositionX() {
+        return storage == null ? positionX : storage.positionX[slot];
+    }
+
+    public float getPositionY() {
+        return storage == null ? positionY : storage.positionY[slot];
+    }
+
+    public float getWidth() {
+        return storage == null ? width : storage.width[slot];
+    }
+
+    public float getHeight() {
+        return storage == null ? height : storage.height[slot];
+    }
+
+    public float getRotation() {
+        return storage == null ? rotation : storage.rotation[slot];
+    }
+
+    public float getPreviousPositionX() {
+        return storage == null ? previousX : storage.previousPositionX[slot];
+    }
+
+    public float getPreviousPositionY() {
+        return storage == null ? previousY : storage.previousPositionY[slot];
+    }
+
+    // Blends the previous and current position; alpha comes from FixedTimestep.getAlpha()
+    public float getInterpolatedX(float alpha) {
+        float previous = getPreviousPositionX();
+        return previous + (getPositionX() - previous) * alpha;
+    }
+
+    public float getInterpolatedY(float alpha) {
+        float previous = getPreviousPositionY();
+        return previous + (getPositionY() - previous) * alpha;
+    }
+
+    // Called by MovementManager before each step; call after teleporting to skip the blend
+    public void savePreviousPosition() {
+        if (storage == null) {
+            previousX = positionX;
+            previousY = positionY;
+        } else {
+            storage.previousPositionX[slot] = storage.positionX[slot];
+            storage.previousPositionY[slot] = storage.positionY[slot];
+        }
+    }
+
+    // For restoring saved state, see WorldSnapshot
+    void setPreviousPosition(float x, float y) {
+        if (storage == null) {
+            previousX = x;
+            previousY = y;
+        } else {
+            storage.previousPositionX[slot] = x;
+            storage.previousPositionY[slot] = y;
+        }
+    }
+
+    public void setPositionX(float x) {
+        if (storage == null) positionX = x; else storage.positionX[slot] = x;
+    }
+
+    public void setPositionY(float y) {
+        if (storage == null) positionY = y; else storage.positionY[slot] = y;
+    }
+
+    public void setPosition(float x, float y) {
+        setPositionX(x);
+        setPositionY(y);
+    }
+
+    public void translate(float dx, float dy) {
+        if (storage == null) {
+            positionX += dx;
+            positionY += dy;
+        } else {
+            storage.positionX[slot] += dx;
+            storage.positionY[slot] += dy;
+        }
+    }
+
+    public void setSize(float w, float h) {
+        if (storage == null) {
+            width = w;
+            height = h;
+        } else {
+            storage.width[slot] = w;
+            storage.height[slot] = h;
+        }
+    }
+
+    public void setRotation(float rotation) {
+        if (storage == null) this.rotation = rotation; else storage.rotation[slot] = rotation;
+    }
+
+    @Override
+    public TransformComponent copy() {
+        TransformComponent copy = new TransformComponent(getPositionX(), getPositionY(), getWidth(), getHeight());
+        copy.rotation = getRotation();
+        copy.enabled = enabled;
+        return copy;
+    }
+
+    @Override
+    public void set(Component template) {
+        super.set(template);
+        TransformComponent other = (TransformComponent) template;
+        setPosition(other.getPositionX(), other.getPositionY());
+        setSize(other.getWidth(), other.getHeight());
+        setRotation(other.getRotation());
+        savePreviousPosition();
+    }
+
+    // Moves the values into the storage columns and turns this component into a view
+    void bind(PackedStorage storage, int slot) {
+        storage.positionX[slot] = positionX;
+        storage.positionY[slot] = positionY;
+        storage.width[slot] = width;
+        storage.height[slot] = height;
+        storage.rotation[slot] = rotation;
+        storage.previousPositionX[slot] = previousX;
+        storage.previousPositionY[slot] = previousY;
+        this.storage = storage;
+        this.slot = slot;
+    }
+
+    // Copies the values back out so the component stays valid on its own
+    void unbind() {
+        if (storage == null) return;
+        positionX = storage.positionX[slot];
+        positionY = storage.positionY[slot];
+        width = storage.width[slot];
+        height = storage.height[slot];
+        rotation = storage.rotation[slot];
+        previousX = storage.previousPositionX[slot];
+        previousY = storage.previousPositionY[slot];
+        storage = null;
+        slot = -1;
     }
-    
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     @Override
     public void update(float deltaTime) {
         // Transform update handled by MovementManager
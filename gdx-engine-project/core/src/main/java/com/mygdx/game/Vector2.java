@@ -19,7 +19,18 @@ public class Vector2 {
         this.y = y;
     }
 
+    public void set(Vector2 other) {
+        this.x = other.x;
+        this.y = other.y;
+    }
+
     public Vector2 copy() {
         return new Vector2(x, y);
     }
+
+    // Allocation-free copy for per-frame code
+    public Vector2 copy(Vector2 out) {
+        out.set(x, y);
+        return out;
+    }
 }
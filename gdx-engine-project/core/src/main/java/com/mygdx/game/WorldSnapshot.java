@@ -0,0 +1,478 @@
+package com.mygdx.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Saved state of every committed entity's transform, physics and collision components,
+ * held as one column per field. Columns are written and read as flat little-endian
+ * arrays, so loading a file is a memory map plus one bulk copy per column.
+ *
+ * A full snapshot can serve as the base for delta snapshots. A delta holds only the
+ * entities whose state differs from the base, each with the base row it replaces or -1
+ * if it was added, plus the base rows of entities removed since. Entities are matched
+ * to base rows by handle, so the base must have been captured from the manager or
+ * restored into it. Deltas are always taken against the base, not chained, so
+ * restoring needs the base and the latest delta only.
+ *
+ * Layout: a 32 byte header (magic, version, kind, entity count, removed count, snapshot
+ * id, base id), for a delta the removed rows and the base row column, then the handle
+ * and flag columns and each float column in order.
+ */
+public class WorldSnapshot {
+    private static final int MAGIC = 0x53584447;
+    private static final short VERSION = 2;
+    private static final short KIND_FULL = 0;
+    private static final short KIND_DELTA = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private static final int ACTIVE = 1;
+    private static final int TRANSFORM = 1 << 1;
+    private static final int TRANSFORM_ENABLED = 1 << 2;
+    private static final int PHYSICS = 1 << 3;
+    private static final int PHYSICS_ENABLED = 1 << 4;
+    private static final int SLEEPING = 1 << 5;
+    private static final int SLEEP_ALLOWED = 1 << 6;
+    private static final int COLLISION = 1 << 7;
+    private static final int COLLISION_ENABLED = 1 << 8;
+    private static final int TRIGGER = 1 << 9;
+    private static final int CONTINUOUS = 1 << 10;
+    // The collision layer lives in the top bits of the flags
+    private static final int LAYER_SHIFT = 16;
+
+    // Float columns, in file order after the handle and flag columns
+    private static final int POSITION_X = 0;
+    private static final int POSITION_Y = 1;
+    private static final int PREVIOUS_X = 2;
+    private static final int PREVIOUS_Y = 3;
+    private static final int WIDTH = 4;
+    private static final int HEIGHT = 5;
+    private static final int ROTATION = 6;
+    private static final int VELOCITY_X = 7;
+    private static final int VELOCITY_Y = 8;
+    private static final int MASS = 9;
+    private static final int SLEEP_TIMER = 10;
+    private static final int OFFSET_X = 11;
+    private static final int OFFSET_Y = 12;
+    private static final int FLOAT_COLUMNS = 13;
+
+    private static final int BYTES_PER_ENTITY = 4 + 4 + FLOAT_COLUMNS * 4;
+
+    private final long id;
+    private int count;
+    private int[] handles;
+    private int[] flags;
+    private final float[][] columns = new float[FLOAT_COLUMNS][];
+    private final float[] rowScratch = new float[FLOAT_COLUMNS];
+
+    // Rows sorted by handle, built the first time a delta is taken against this snapshot
+    private long[] handleIndex;
+
+    private WorldSnapshot(long id, int capacity) {
+        this.id = id;
+        this.handles = new int[capacity];
+        this.flags = new int[capacity];
+        for (int c = 0; c < FLOAT_COLUMNS; c++) {
+            columns[c] = new float[capacity];
+        }
+    }
+
+    // Copies the state of the entities committed to the manager; pending additions are not included
+    public static WorldSnapshot capture(EntityManager entityManager) {
+        List<Entity> entities = entityManager.getEntities();
+        WorldSnapshot snapshot = new WorldSnapshot(ThreadLocalRandom.current().nextLong(), entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            snapshot.captureRow(snapshot.count++, entities.get(i));
+        }
+        return snapshot;
+    }
+
+    private void captureRow(int row, Entity entity) {
+        handles[row] = entity.getId();
+        int bits = entity.isActive() ? ACTIVE : 0;
+        Arrays.fill(rowScratch, 0);
+
+        TransformComponent transform = entity.getComponent(TransformComponent.class);
+        if (transform != null) {
+            bits |= TRANSFORM | (transform.isEnabled() ? TRANSFORM_ENABLED : 0);
+            rowScratch[POSITION_X] = transform.getPositionX();
+            rowScratch[POSITION_Y] = transform.getPositionY();
+            rowScratch[PREVIOUS_X] = transform.getPreviousPositionX();
+            rowScratch[PREVIOUS_Y] = transform.getPreviousPositionY();
+            rowScratch[WIDTH] = transform.getWidth();
+            rowScratch[HEIGHT] = transform.getHeight();
+            rowScratch[ROTATION] = transform.getRotation();
+        }
+        PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+        if (physics != null) {
+            bits |= PHYSICS | (physics.isEnabled() ? PHYSICS_ENABLED : 0)
+                | (physics.isSleeping() ? SLEEPING : 0) | (physics.isSleepAllowed() ? SLEEP_ALLOWED : 0);
+            rowScratch[VELOCITY_X] = physics.getVelocityX();
+            rowScratch[VELOCITY_Y] = physics.getVelocityY();
+            rowScratch[MASS] = physics.getMass();
+            rowScratch[SLEEP_TIMER] = physics.sleepTimer;
+        }
+        CollisionComponent collision = entity.getComponent(CollisionComponent.class);
+        if (collision != null) {
+            bits |= COLLISION | (collision.isEnabled() ? COLLISION_ENABLED : 0)
+                | (collision.isTrigger() ? TRIGGER : 0) | (collision.isContinuous() ? CONTINUOUS : 0)
+                | collision.getCollisionLayer() << LAYER_SHIFT;
+            rowScratch[OFFSET_X] = collision.getBoundsOffset().x;
+            rowScratch[OFFSET_Y] = collision.getBoundsOffset().y;
+        }
+
+        flags[row] = bits;
+        for (int c = 0; c < FLOAT_COLUMNS; c++) {
+            columns[c][row] = rowScratch[c];
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        write(path, KIND_FULL, id, 0, null, 0, null);
+    }
+
+    /**
+     * Writes the entities of the manager whose state differs from this snapshot, and
+     * the rows of entities in this snapshot that the manager no longer has. Returns
+     * the number of changed or added entities written.
+     */
+    public int writeDelta(EntityManager entityManager, Path path) throws IOException {
+        buildHandleIndex();
+        List<Entity> entities = entityManager.getEntities();
+        WorldSnapshot changed = new WorldSnapshot(id, Math.max(16, entities.size() / 16));
+        int[] baseRows = new int[changed.handles.length];
+        boolean[] present = new boolean[count];
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            int row = findRow(entity.getId());
+            if (row != -1) present[row] = true;
+
+            changed.ensureCapacity(changed.count + 1);
+            changed.captureRow(changed.count, entity);
+            if (row == -1 || !changed.sameRow(changed.count, this, row)) {
+                if (baseRows.length <= changed.count) baseRows = Arrays.copyOf(baseRows, changed.handles.length);
+                baseRows[changed.count++] = row;
+            }
+        }
+
+        int[] removed = new int[16];
+        int removedCount = 0;
+        for (int row = 0; row < count; row++) {
+            if (present[row]) continue;
+            if (removedCount == removed.length) removed = Arrays.copyOf(removed, removedCount * 2);
+            removed[removedCount++] = row;
+        }
+
+        changed.write(path, KIND_DELTA, ThreadLocalRandom.current().nextLong(), id, removed, removedCount, baseRows);
+        return changed.count;
+    }
+
+    private void write(Path path, short kind, long snapshotId, long baseId, int[] removed, int removedCount,
+                       int[] baseRows) throws IOException {
+        int rowBytes = kind == KIND_DELTA ? BYTES_PER_ENTITY + 4 : BYTES_PER_ENTITY;
+        int size = HEADER_BYTES + removedCount * 4 + count * rowBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort(kind);
+        buffer.putInt(count);
+        buffer.putInt(removedCount);
+        buffer.putLong(snapshotId);
+        buffer.putLong(baseId);
+
+        putInts(buffer, removed, removedCount);
+        if (kind == KIND_DELTA) putInts(buffer, baseRows, count);
+        putInts(buffer, handles, count);
+        putInts(buffer, flags, count);
+        for (int c = 0; c < FLOAT_COLUMNS; c++) {
+            buffer.asFloatBuffer().put(columns[c], 0, count);
+            buffer.position(buffer.position() + count * 4);
+        }
+
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values, int count) {
+        if (count == 0) return;
+        buffer.asIntBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * 4);
+    }
+
+    // Maps a full snapshot written by write(Path)
+    public static WorldSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            Header header = readHeader(buffer, path);
+            if (header.kind != KIND_FULL) {
+                throw new IOException("Expected a full snapshot, found a delta: " + path);
+            }
+            WorldSnapshot snapshot = new WorldSnapshot(header.snapshotId, header.count);
+            snapshot.readColumns(buffer, header.count);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns this snapshot with a delta written against it applied. Changed entities
+     * replace their rows in place and added ones are appended, so surviving entities
+     * keep their order from this snapshot.
+     */
+    public WorldSnapshot applyDelta(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            Header header = readHeader(buffer, path);
+            if (header.kind != KIND_DELTA) {
+                throw new IOException("Expected a delta snapshot, found a full one: " + path);
+            }
+            if (header.baseId != id) {
+                throw new IOException("Delta was taken against a different base snapshot: " + path);
+            }
+
+            int[] removed = new int[header.removedCount];
+            buffer.asIntBuffer().get(removed);
+            buffer.position(buffer.position() + removed.length * 4);
+            int[] baseRows = new int[header.count];
+            buffer.asIntBuffer().get(baseRows);
+            buffer.position(buffer.position() + baseRows.length * 4);
+            WorldSnapshot delta = new WorldSnapshot(header.snapshotId, header.count);
+            delta.readColumns(buffer, header.count);
+
+            boolean[] dropped = new boolean[count];
+            for (int row : removed) {
+                if (row < 0 || row >= count) throw new IOException("Delta does not match its base: " + path);
+                dropped[row] = true;
+            }
+            int[] replacement = new int[count];
+            Arrays.fill(replacement, -1);
+            for (int d = 0; d < delta.count; d++) {
+                int row = baseRows[d];
+                if (row < -1 || row >= count) throw new IOException("Delta does not match its base: " + path);
+                if (row != -1) replacement[row] = d;
+            }
+
+            // The merged snapshot keeps this id, so further deltas of the same base still apply
+            WorldSnapshot merged = new WorldSnapshot(id, count + delta.count);
+            for (int row = 0; row < count; row++) {
+                if (dropped[row]) continue;
+                if (replacement[row] == -1) {
+                    merged.copyRow(merged.count++, this, row);
+                } else {
+                    merged.copyRow(merged.count++, delta, replacement[row]);
+                }
+            }
+            for (int d = 0; d < delta.count; d++) {
+                if (baseRows[d] == -1) merged.copyRow(merged.count++, delta, d);
+            }
+            return merged;
+        }
+    }
+
+    private void readColumns(ByteBuffer buffer, int rows) throws IOException {
+        if (buffer.remaining() < rows * BYTES_PER_ENTITY) {
+            throw new IOException("Snapshot is truncated");
+        }
+        buffer.asIntBuffer().get(handles, 0, rows);
+        buffer.position(buffer.position() + rows * 4);
+        buffer.asIntBuffer().get(flags, 0, rows);
+        buffer.position(buffer.position() + rows * 4);
+        for (int c = 0; c < FLOAT_COLUMNS; c++) {
+            buffer.asFloatBuffer().get(columns[c], 0, rows);
+            buffer.position(buffer.position() + rows * 4);
+        }
+        count = rows;
+    }
+
+    private static Header readHeader(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a world snapshot: " + path);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+        Header header = new Header();
+        header.kind = buffer.getShort();
+        header.count = buffer.getInt();
+        header.removedCount = buffer.getInt();
+        header.snapshotId = buffer.getLong();
+        header.baseId = buffer.getLong();
+        if (header.count < 0 || header.removedCount < 0) {
+            throw new IOException("Corrupt snapshot header: " + path);
+        }
+        // Checked before anything is allocated, so a bad count can't ask for more than the file holds
+        long rowBytes = header.kind == KIND_DELTA ? BYTES_PER_ENTITY + 4 : BYTES_PER_ENTITY;
+        if ((long) header.removedCount * 4 + header.count * rowBytes > buffer.remaining()) {
+            throw new IOException("Snapshot is truncated: " + path);
+        }
+        return header;
+    }
+
+    private static class Header {
+        short kind;
+        int count;
+        int removedCount;
+        long snapshotId;
+        long baseId;
+    }
+
+    /**
+     * Creates an entity per saved row and queues it on the manager, committing them in
+     * one update. Collision components are registered with collisionManager when one
+     * is given. Returns the new entities in row order. Rows are then keyed to the new
+     * entities' handles, so deltas can be taken against this snapshot from the restored
+     * world.
+     */
+    public List<Entity> restore(EntityManager entityManager, CollisionManager collisionManager) {
+        List<Entity> restored = new ArrayList<>(count);
+        for (int row = 0; row < count; row++) {
+            restored.add(restoreRow(row));
+        }
+        entityManager.addEntities(restored);
+        entityManager.update(0);
+
+        // Packed storage binds components on commit, so write the state that lives there afterwards
+        for (int row = 0; row < count; row++) {
+            Entity entity = restored.get(row);
+            int bits = flags[row];
+            if ((bits & TRANSFORM) != 0) {
+                entity.getComponent(TransformComponent.class)
+                    .setPreviousPosition(columns[PREVIOUS_X][row], columns[PREVIOUS_Y][row]);
+            }
+            if ((bits & SLEEPING) != 0) {
+                PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+                physics.sleep();
+                physics.sleepTimer = columns[SLEEP_TIMER][row];
+            }
+            if (collisionManager != null && (bits & COLLISION) != 0) {
+                collisionManager.addCollisionComponent(entity.getComponent(CollisionComponent.class));
+            }
+            handles[row] = entity.getId();
+        }
+        handleIndex = null;
+        return restored;
+    }
+
+    private Entity restoreRow(int row) {
+        Entity entity = new Entity();
+        int bits = flags[row];
+        if ((bits & TRANSFORM) != 0) {
+            TransformComponent transform = new TransformComponent(
+                columns[POSITION_X][row], columns[POSITION_Y][row], columns[WIDTH][row], columns[HEIGHT][row]);
+            transform.setRotation(columns[ROTATION][row]);
+            transform.setEnabled((bits & TRANSFORM_ENABLED) != 0);
+            entity.addComponent(transform);
+        }
+        if ((bits & PHYSICS) != 0) {
+            PhysicsComponent physics = new PhysicsComponent(
+                columns[VELOCITY_X][row], columns[VELOCITY_Y][row], columns[MASS][row]);
+            physics.setEnabled((bits & PHYSICS_ENABLED) != 0);
+            physics.setSleepAllowed((bits & SLEEP_ALLOWED) != 0);
+            physics.sleepTimer = columns[SLEEP_TIMER][row];
+            entity.addComponent(physics);
+        }
+        if ((bits & COLLISION) != 0) {
+            CollisionComponent collision = new CollisionComponent(bits >>> LAYER_SHIFT, (bits & TRIGGER) != 0);
+            collision.setContinuous((bits & CONTINUOUS) != 0);
+            collision.getBoundsOffset().set(columns[OFFSET_X][row], columns[OFFSET_Y][row]);
+            collision.setEnabled((bits & COLLISION_ENABLED) != 0);
+            entity.addComponent(collision);
+        }
+        entity.setActive((bits & ACTIVE) != 0);
+        return entity;
+    }
+
+    private void copyRow(int row, WorldSnapshot from, int fromRow) {
+        handles[row] = from.handles[fromRow];
+        flags[row] = from.flags[fromRow];
+        for (int c = 0; c < FLOAT_COLUMNS; c++) {
+            columns[c][row] = from.columns[c][fromRow];
+        }
+    }
+
+    // Bitwise comparison, so a NaN that stays NaN is unchanged and -0 differs from 0
+    private boolean sameRow(int row, WorldSnapshot other, int otherRow) {
+        if (flags[row] != other.flags[otherRow]) return false;
+        for (int c = 0; c < FLOAT_COLUMNS; c++) {
+            if (Float.floatToIntBits(columns[c][row]) != Float.floatToIntBits(other.columns[c][otherRow])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= handles.length) return;
+        int grown = Math.max(capacity, handles.length * 2);
+        handles = Arrays.copyOf(handles, grown);
+        flags = Arrays.copyOf(flags, grown);
+        for (int c = 0; c < FLOAT_COLUMNS; c++) {
+            columns[c] = Arrays.copyOf(columns[c], grown);
+        }
+    }
+
+    // Handle in the high half, row in the low half, sorted for binary search
+    private void buildHandleIndex() {
+        if (handleIndex != null) return;
+        handleIndex = new long[count];
+        for (int row = 0; row < count; row++) {
+            handleIndex[row] = (long) handles[row] << 32 | row;
+        }
+        Arrays.sort(handleIndex);
+    }
+
+    private int findRow(int handle) {
+        int low = 0;
+        int high = handleIndex.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midHandle = (int) (handleIndex[mid] >> 32);
+            if (midHandle < handle) {
+                low = mid + 1;
+            } else if (midHandle > handle) {
+                high = mid - 1;
+            } else {
+                return (int) handleIndex[mid];
+            }
+        }
+        return -1;
+    }
+
+    // True if both hold bitwise identical state row for row; handles are not compared
+    public boolean sameState(WorldSnapshot other) {
+        if (count != other.count) return false;
+        for (int row = 0; row < count; row++) {
+            if (!sameRow(row, other, row)) return false;
+        }
+        return true;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Handle of the entity this row was captured from, or restored into by restore()
+    public int getHandle(int row) {
+        return handles[row];
+    }
+}
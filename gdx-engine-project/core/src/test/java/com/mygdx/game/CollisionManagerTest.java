@@ -0,0 +1,163 @@
+package com.mygdx.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+public class CollisionManagerTest {
+    private static final int TICKS = 60;
+    private static final int NARROW_PHASE_THRESHOLD = 8192;
+
+    // Appends every callback it receives to a log shared by the whole scene
+    private static class RecordingCollider extends CollisionComponent {
+        private final int label;
+        private final List<String> log;
+
+        RecordingCollider(int label, int layer, boolean trigger, List<String> log) {
+            super(layer, trigger);
+            this.label = label;
+            this.log = log;
+        }
+
+        private void record(String kind, CollisionComponent other) {
+            log.add(label + " " + kind + " " + ((RecordingCollider) other).label);
+        }
+
+        @Override
+        public void onCollisionEnter(CollisionComponent other) {
+            record("enter", other);
+        }
+
+        @Override
+        public void onCollisionEnter(CollisionComponent other, float timeOfImpact, float normalX, float normalY) {
+            record("enter " + timeOfImpact + " " + normalX + " " + normalY, other);
+        }
+
+        @Override
+        public void onCollisionStay(CollisionComponent other) {
+            record("stay", other);
+        }
+
+        @Override
+        public void onCollisionExit(CollisionComponent other) {
+            record("exit", other);
+        }
+
+        @Override
+        public void onTriggerEnter(CollisionComponent other) {
+            record("trigger enter", other);
+        }
+
+        @Override
+        public void onTriggerEnter(CollisionComponent other, float timeOfImpact, float normalX, float normalY) {
+            record("trigger enter " + timeOfImpact + " " + normalX + " " + normalY, other);
+        }
+
+        @Override
+        public void onTriggerStay(CollisionComponent other) {
+            record("trigger stay", other);
+        }
+
+        @Override
+        public void onTriggerExit(CollisionComponent other) {
+            record("trigger exit", other);
+        }
+    }
+
+    private static RecordingCollider addCollider(EntityManager entityManager, CollisionManager collisionManager,
+                                                 List<String> log, int label, int layer, boolean trigger,
+                                                 float x, float y, float width, float height,
+                                                 float velocityX, float velocityY) {
+        Entity entity = new Entity();
+        entity.addComponent(new TransformComponent(x, y, width, height));
+        entity.addComponent(new PhysicsComponent(velocityX, velocityY, 1));
+        RecordingCollider collider = new RecordingCollider(label, layer, trigger, log);
+        entity.addComponent(collider);
+        entityManager.addEntity(entity);
+        collisionManager.addCollisionComponent(collider);
+        return collider;
+    }
+
+    /**
+     * Seeded scene of moving colliders on three layers, with triggers, continuous
+     * colliders, colliders removed mid-run, and ones the grid can't hash: a huge one,
+     * one with infinite width and one with NaN bounds. Returns every callback in order.
+     */
+    private static List<String> runScene(CollisionManager collisionManager, int colliders, float worldSize) {
+        List<String> log = new ArrayList<>();
+        EntityManager entityManager = new EntityManager();
+        MovementManager movementManager = new MovementManager(entityManager);
+        movementManager.addMovementStrategy(new BasicMovementStrategy());
+        collisionManager.getCollisionMatrix().setCollides(2, 3, false);
+
+        Random random = new Random(11);
+        List<RecordingCollider> all = new ArrayList<>();
+        for (int i = 0; i < colliders; i++) {
+            float size = 4 + random.nextFloat() * 26;
+            RecordingCollider collider = addCollider(entityManager, collisionManager, log, i,
+                1 + random.nextInt(3), random.nextInt(10) == 0,
+                random.nextFloat() * worldSize, random.nextFloat() * worldSize, size, size,
+                (random.nextFloat() - 0.5f) * 120, (random.nextFloat() - 0.5f) * 120);
+            collider.setContinuous(random.nextInt(20) == 0);
+            all.add(collider);
+        }
+        addCollider(entityManager, collisionManager, log, -1, 1, false, 100, 100, 1e9f, 1e9f, 0, 0);
+        addCollider(entityManager, collisionManager, log, -2, 2, true, 0, 50, Float.POSITIVE_INFINITY, 5, 0, 0);
+        addCollider(entityManager, collisionManager, log, -3, 3, false, Float.NaN, 0, 10, 10, 0, 0);
+        entityManager.update(0);
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            log.add("tick " + tick);
+            movementManager.updateMovement(1 / 30f);
+            collisionManager.update(1 / 30f);
+            if (tick % 10 == 5) {
+                for (int i = tick; i < all.size(); i += 37) {
+                    collisionManager.removeCollisionComponent(all.get(i));
+                }
+            }
+        }
+        return log;
+    }
+
+    @Test
+    public void spatialHashMatchesBruteForce() {
+        List<String> bruteForce = runScene(new CollisionManager(BroadPhaseMode.BRUTE_FORCE, 64), 600, 800);
+        List<String> spatialHash = runScene(new CollisionManager(BroadPhaseMode.SPATIAL_HASH, 64), 600, 800);
+
+        assertTrue("Scene produced too few callbacks to compare", bruteForce.size() > 10 * TICKS);
+        assertEquals(bruteForce, spatialHash);
+    }
+
+    @Test
+    public void spatialHashMatchesBruteForceWithSmallCells() {
+        List<String> bruteForce = runScene(new CollisionManager(BroadPhaseMode.BRUTE_FORCE, 64), 300, 400);
+        List<String> spatialHash = runScene(new CollisionManager(BroadPhaseMode.SPATIAL_HASH, 8), 300, 400);
+        assertEquals(bruteForce, spatialHash);
+    }
+
+    @Test
+    public void parallelNarrowPhaseMatchesSerial() {
+        List<String> serial = runScene(new CollisionManager(BroadPhaseMode.SPATIAL_HASH, 64), 3000, 800);
+
+        CollisionManager parallel = new CollisionManager(BroadPhaseMode.SPATIAL_HASH, 64);
+        parallel.setParallelNarrowPhase(true);
+        parallel.setNarrowPhaseThreshold(NARROW_PHASE_THRESHOLD);
+        parallel.setNarrowPhaseChunkSize(256);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallel.setPool(pool);
+        try {
+            assertEquals(serial, runScene(parallel, 3000, 800));
+        } finally {
+            pool.shutdown();
+        }
+
+        FrameCounters counters = new FrameCounters();
+        parallel.collectCounters(counters);
+        assertTrue("Scene stayed below the parallel threshold", counters.pairsTested >= NARROW_PHASE_THRESHOLD);
+    }
+}
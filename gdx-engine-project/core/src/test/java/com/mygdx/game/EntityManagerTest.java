@@ -0,0 +1,108 @@
+package com.mygdx.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class EntityManagerTest {
+    private static List<Entity> addCommitted(EntityManager entityManager, int count) {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Entity entity = new Entity();
+            entity.addComponent(new TransformComponent(i, i, 1, 1));
+            entities.add(entity);
+        }
+        entityManager.addEntities(entities);
+        entityManager.update(0);
+        return entities;
+    }
+
+    @Test
+    public void readdBeforeUpdateCancelsRemoval() {
+        for (boolean stableOrder : new boolean[] {false, true}) {
+            EntityManager entityManager = new EntityManager();
+            entityManager.setStableOrder(stableOrder);
+            List<Entity> entities = addCommitted(entityManager, 10);
+            Entity entity = entities.get(3);
+            int handle = entity.getId();
+
+            entityManager.removeEntity(entity);
+            entityManager.addEntity(entity);
+            entityManager.update(0);
+
+            assertEquals(10, entityManager.getEntityCount());
+            assertTrue(entityManager.getEntities().contains(entity));
+            assertSame(entity, entityManager.getEntity(handle));
+        }
+    }
+
+    @Test
+    public void addRemoveAddBeforeUpdateAddsOnce() {
+        EntityManager entityManager = new EntityManager();
+        Entity entity = new Entity();
+        entityManager.addEntity(entity);
+        entityManager.removeEntity(entity);
+        entityManager.addEntity(entity);
+        entityManager.update(0);
+
+        assertEquals(1, entityManager.getEntityCount());
+        assertTrue(entityManager.isAlive(entity.getId()));
+    }
+
+    @Test
+    public void batchRemoveThenAddKeepsEntities() {
+        EntityManager entityManager = new EntityManager();
+        List<Entity> entities = addCommitted(entityManager, 50);
+
+        entityManager.removeEntities(entities);
+        entityManager.addEntities(entities.subList(0, 20));
+        entityManager.update(0);
+
+        assertEquals(20, entityManager.getEntityCount());
+        for (int i = 0; i < entities.size(); i++) {
+            assertEquals(i < 20, entityManager.getEntities().contains(entities.get(i)));
+        }
+    }
+
+    @Test
+    public void removeAfterCancelledRemovalStillRemoves() {
+        EntityManager entityManager = new EntityManager();
+        Entity entity = addCommitted(entityManager, 5).get(0);
+        int handle = entity.getId();
+
+        entityManager.removeEntity(entity);
+        entityManager.addEntity(entity);
+        entityManager.removeEntity(entity);
+        entityManager.update(0);
+
+        assertEquals(4, entityManager.getEntityCount());
+        assertFalse(entityManager.isAlive(handle));
+        assertEquals(-1, entity.getId());
+    }
+
+    // Like a pooled bullet: one entity despawned and spawned again every tick
+    @Test
+    public void churnDoesNotReissueHandles() {
+        EntityManager entityManager = new EntityManager();
+        addCommitted(entityManager, 10);
+        Set<Integer> issued = new HashSet<>();
+        Entity entity = new Entity();
+        for (int tick = 0; tick < 100000; tick++) {
+            entityManager.addEntity(entity);
+            entityManager.update(0);
+            assertTrue("Handle issued twice", issued.add(entity.getId()));
+            entityManager.removeEntity(entity);
+            entityManager.update(0);
+        }
+        for (int handle : issued) {
+            assertFalse(entityManager.isAlive(handle));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.mygdx.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class EventQueueTest {
+    private static class Ping implements Event {
+        int producer = -1;
+        int value = -1;
+
+        @Override
+        public void reset() {
+            producer = -1;
+            value = -1;
+        }
+    }
+
+    private static final EventQueue.Factory<Ping> PINGS = new EventQueue.Factory<Ping>() {
+        @Override
+        public Ping create() {
+            return new Ping();
+        }
+    };
+
+    private static boolean publish(EventQueue<Ping> queue, int producer, int value) {
+        long sequence = queue.claim();
+        if (sequence < 0) return false;
+        Ping ping = queue.get(sequence);
+        ping.producer = producer;
+        ping.value = value;
+        queue.publish(sequence);
+        return true;
+    }
+
+    @Test
+    public void concurrentProducersLoseAndDuplicateNothing() throws InterruptedException {
+        final int producers = 8;
+        final int perProducer = 50000;
+        final EventQueue<Ping> queue = new EventQueue<>(PINGS, 1024);
+        // Each producer's events are claimed in order, so they must arrive in order
+        final int[] next = new int[producers];
+        final List<String> errors = new ArrayList<>();
+        queue.subscribe(new EventSubscriber<Ping>() {
+            @Override
+            public void onEvent(Ping ping) {
+                if (ping.producer < 0 || ping.value != next[ping.producer]) {
+                    errors.add("producer " + ping.producer + " sent " + ping.value);
+                    return;
+                }
+                next[ping.producer]++;
+            }
+        });
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final long[] retries = new long[producers];
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) {
+                        // A full queue drops; retry until the consumer makes room
+                        while (!publish(queue, producer, i)) {
+                            retries[producer]++;
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        final AtomicBoolean producing = new AtomicBoolean(true);
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (producing.get()) {
+                    queue.dispatch();
+                }
+            }
+        });
+        consumer.start();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        producing.set(false);
+        consumer.join();
+        queue.dispatch();
+
+        assertEquals(new ArrayList<String>(), errors);
+        long totalRetries = 0;
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, next[p]);
+            totalRetries += retries[p];
+        }
+        assertEquals((long) producers * perProducer, queue.getDispatchedCount());
+        assertEquals(totalRetries, queue.getDroppedCount());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void fullQueueDropsUntilDispatched() {
+        EventQueue<Ping> queue = new EventQueue<>(PINGS, 3);
+        final List<Integer> received = new ArrayList<>();
+        queue.subscribe(new EventSubscriber<Ping>() {
+            @Override
+            public void onEvent(Ping ping) {
+                received.add(ping.value);
+            }
+        });
+        assertEquals(4, queue.getCapacity());
+
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i < 4, publish(queue, 0, i));
+        }
+        // Nothing is delivered before the dispatch point
+        assertTrue(received.isEmpty());
+        assertEquals(3, queue.getDroppedCount());
+
+        assertEquals(4, queue.dispatch());
+        assertEquals(4, received.size());
+        assertEquals(Integer.valueOf(3), received.get(3));
+        assertTrue(publish(queue, 0, 7));
+        assertEquals(3, queue.getDroppedCount());
+    }
+
+    @Test
+    public void throwingSubscriberStillResetsTheBatch() {
+        EventQueue<Ping> queue = new EventQueue<>(PINGS, 4);
+        final List<Ping> seen = new ArrayList<>();
+        final List<Integer> values = new ArrayList<>();
+        queue.subscribe(new EventSubscriber<Ping>() {
+            @Override
+            public void onEvent(Ping ping) {
+                seen.add(ping);
+                values.add(ping.value);
+                if (ping.value == 1) {
+                    throw new IllegalStateException("subscriber failed");
+                }
+            }
+        });
+        for (int i = 0; i < 4; i++) {
+            assertTrue(publish(queue, 0, i));
+        }
+
+        try {
+            queue.dispatch();
+            fail("Subscriber exception was swallowed");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        // The whole batch is consumed and reset, not handed out again
+        assertEquals(0, queue.size());
+        for (Ping ping : seen) {
+            assertEquals(-1, ping.value);
+        }
+        assertEquals(Arrays.asList(0, 1), values);
+        values.clear();
+        assertEquals(0, queue.dispatch());
+        assertTrue(values.isEmpty());
+
+        // Every slot is free again
+        for (int i = 10; i < 14; i++) {
+            assertTrue(publish(queue, 0, i));
+        }
+        assertEquals(4, queue.dispatch());
+        assertEquals(Arrays.asList(10, 11, 12, 13), values);
+    }
+}
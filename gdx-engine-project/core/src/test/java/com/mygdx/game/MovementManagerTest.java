@@ -0,0 +1,136 @@
+package com.mygdx.game;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Test;
+
+public class MovementManagerTest {
+    private static final int ENTITIES = 5000;
+    private static final int TICKS = 40;
+
+    private enum Strategies {
+        // Per-entity strategies only, so the plain loops run
+        PER_ENTITY,
+        // Native batch strategies, through the fused block paths
+        BATCH,
+        // Batch strategies with a per-entity one between them, run through the adapter
+        MIXED
+    }
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    // Hides the batch interface so the strategy is registered as a per-entity one
+    private static MovementStrategy perEntity(final MovementStrategy strategy) {
+        return new MovementStrategy() {
+            @Override
+            public void applyMovement(TransformComponent transform, PhysicsComponent physics, float deltaTime) {
+                strategy.applyMovement(transform, physics, deltaTime);
+            }
+
+            @Override
+            public boolean isParallelSafe() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Seeded scene with transform-only, disabled, inactive and slow bodies that fall
+     * asleep, and removals partway through. Returns every entity's final state as float
+     * bits, in creation order.
+     */
+    private List<String> run(Strategies strategies, boolean packed, boolean parallel) {
+        EntityManager entityManager = new EntityManager(packed);
+        MovementManager movementManager = new MovementManager(entityManager);
+        MovementStrategy gravity = new GravityMovementStrategy(0.2f, 0);
+        MovementStrategy drag = new DragMovementStrategy(0.5f);
+        MovementStrategy basic = new BasicMovementStrategy();
+        if (strategies == Strategies.PER_ENTITY) {
+            movementManager.addMovementStrategy(perEntity(gravity));
+            movementManager.addMovementStrategy(perEntity(drag));
+            movementManager.addMovementStrategy(perEntity(basic));
+        } else {
+            movementManager.addMovementStrategy(gravity);
+            movementManager.addMovementStrategy(strategies == Strategies.MIXED ? perEntity(drag) : drag);
+            movementManager.addMovementStrategy(basic);
+        }
+        movementManager.setSleepEnabled(true);
+        movementManager.setSleepVelocity(1f);
+        movementManager.setParallel(parallel);
+        movementManager.setParallelThreshold(1024);
+        movementManager.setChunkSize(300);
+        movementManager.setPool(pool);
+
+        Random random = new Random(5);
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < ENTITIES; i++) {
+            Entity entity = new Entity();
+            entity.addComponent(new TransformComponent(random.nextFloat() * 1000, random.nextFloat() * 1000, 4, 4));
+            if (i % 11 != 0) {
+                // Every fifth body starts nearly still and stays under the sleep velocity
+                float speed = i % 5 == 0 ? 0.001f : 100;
+                PhysicsComponent physics = new PhysicsComponent((random.nextFloat() - 0.5f) * speed,
+                    i % 5 == 0 ? 0 : (random.nextFloat() - 0.5f) * speed, 1 + i % 3);
+                physics.setEnabled(i % 13 != 0);
+                physics.setSleepAllowed(i % 7 != 0);
+                entity.addComponent(physics);
+            }
+            entity.setActive(i % 17 != 0);
+            entities.add(entity);
+        }
+        entityManager.addEntities(entities);
+        entityManager.update(0);
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            movementManager.updateMovement(1 / 30f);
+            if (tick == TICKS / 2) {
+                for (int i = 0; i < entities.size(); i += 97) {
+                    entityManager.removeEntity(entities.get(i));
+                }
+                entityManager.update(0);
+            }
+        }
+
+        List<String> states = new ArrayList<>();
+        for (Entity entity : entities) {
+            TransformComponent transform = entity.getComponent(TransformComponent.class);
+            StringBuilder state = new StringBuilder()
+                .append(Float.floatToIntBits(transform.getPositionX())).append(' ')
+                .append(Float.floatToIntBits(transform.getPositionY())).append(' ')
+                .append(Float.floatToIntBits(transform.getPreviousPositionX())).append(' ')
+                .append(Float.floatToIntBits(transform.getPreviousPositionY()));
+            PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+            if (physics != null) {
+                state.append(' ').append(Float.floatToIntBits(physics.getVelocityX()))
+                    .append(' ').append(Float.floatToIntBits(physics.getVelocityY()))
+                    .append(' ').append(physics.isSleeping())
+                    .append(' ').append(Float.floatToIntBits(physics.sleepTimer));
+            }
+            states.add(state.toString());
+        }
+        return states;
+    }
+
+    @Test
+    public void allPathsAreBitIdentical() {
+        List<String> reference = run(Strategies.PER_ENTITY, false, false);
+        for (Strategies strategies : Strategies.values()) {
+            for (boolean packed : new boolean[] {false, true}) {
+                for (boolean parallel : new boolean[] {false, true}) {
+                    assertEquals(strategies + " packed=" + packed + " parallel=" + parallel,
+                        reference, run(strategies, packed, parallel));
+                }
+            }
+        }
+    }
+}
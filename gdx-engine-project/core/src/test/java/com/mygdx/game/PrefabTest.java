@@ -0,0 +1,37 @@
+package com.mygdx.game;
+
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class PrefabTest {
+    private static class Marker extends Component {
+        @Override
+        public void update(float deltaTime) { }
+    }
+
+    @Test
+    public void componentWithoutCopyIsRejectedByWith() {
+        Prefab prefab = new Prefab("marked");
+        try {
+            prefab.with(new Marker());
+            fail("Prefab accepted a component that can't be copied");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void subclassInheritingCopyIsRejectedByWith() {
+        Prefab prefab = new Prefab("bullet");
+        try {
+            prefab.with(new CollisionComponent(1, false) {
+                @Override
+                public void onCollisionEnter(CollisionComponent other) { }
+            });
+            fail("Prefab accepted a copy of the wrong type");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.mygdx.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class ReplicationTest {
+    private static final float DELTA = 1 / 30f;
+
+    private final EntityManager server = new EntityManager();
+    private final MovementManager movementManager = new MovementManager(server);
+    private final ReplicationManager replicationManager = new ReplicationManager(server);
+    private final EntityManager mirror = new EntityManager();
+    private final ReplicationDecoder decoder = new ReplicationDecoder(mirror);
+    private final Random random = new Random(3);
+
+    public ReplicationTest() {
+        movementManager.addMovementStrategy(new BasicMovementStrategy());
+    }
+
+    private Entity spawn(boolean physics) {
+        Entity entity = new Entity();
+        TransformComponent transform = new TransformComponent(random.nextFloat() * 2000, random.nextFloat() * 2000,
+            1 + random.nextFloat() * 20, 1 + random.nextFloat() * 20);
+        transform.setRotation(random.nextFloat() * 360);
+        entity.addComponent(transform);
+        if (physics) {
+            entity.addComponent(new PhysicsComponent((random.nextFloat() - 0.5f) * 100,
+                (random.nextFloat() - 0.5f) * 100, 1 + random.nextFloat()));
+        }
+        server.addEntity(entity);
+        return entity;
+    }
+
+    private List<Entity> spawnAll(int count) {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entities.add(spawn(i % 4 != 0));
+        }
+        return entities;
+    }
+
+    private void step() {
+        server.update(0);
+        movementManager.updateMovement(DELTA);
+        replicationManager.update(DELTA);
+    }
+
+    private void drain(LoopbackReplicationSink sink) {
+        for (ByteBuffer frame = sink.poll(); frame != null; frame = sink.poll()) {
+            decoder.apply(frame);
+        }
+    }
+
+    // Reads until the sink has nothing left to write and no complete frame is waiting
+    private void drain(ChannelReplicationSink sink, Pipe pipe) throws IOException {
+        while (true) {
+            long written = sink.getBytesWritten();
+            sink.flush();
+            if (decoder.receive(pipe.source()) == 0 && sink.getBytesWritten() == written) return;
+        }
+    }
+
+    // Every server entity has a mirror within half a quantization step, and nothing else does
+    private void assertMirrored() {
+        float positionTolerance = replicationManager.getPositionPrecision() * 0.51f;
+        float velocityTolerance = replicationManager.getVelocityPrecision() * 0.51f;
+        assertEquals(server.getEntityCount(), mirror.getEntityCount());
+        for (Entity entity : server.getEntities()) {
+            Entity copy = decoder.getMirror(entity.getId());
+            assertNotNull("No mirror for " + entity.getId(), copy);
+
+            TransformComponent expected = entity.getComponent(TransformComponent.class);
+            TransformComponent actual = copy.getComponent(TransformComponent.class);
+            assertEquals(expected.getPositionX(), actual.getPositionX(), positionTolerance);
+            assertEquals(expected.getPositionY(), actual.getPositionY(), positionTolerance);
+            assertEquals(expected.getWidth(), actual.getWidth(), positionTolerance);
+            assertEquals(expected.getHeight(), actual.getHeight(), positionTolerance);
+            assertEquals(expected.getRotation(), actual.getRotation(), 0);
+
+            PhysicsComponent expectedPhysics = entity.getComponent(PhysicsComponent.class);
+            PhysicsComponent actualPhysics = copy.getComponent(PhysicsComponent.class);
+            assertEquals(expectedPhysics != null, actualPhysics != null);
+            if (expectedPhysics != null) {
+                assertEquals(expectedPhysics.getVelocityX(), actualPhysics.getVelocityX(), velocityTolerance);
+                assertEquals(expectedPhysics.getVelocityY(), actualPhysics.getVelocityY(), velocityTolerance);
+                assertEquals(expectedPhysics.getMass(), actualPhysics.getMass(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void loopbackMirrorFollowsServer() {
+        LoopbackReplicationSink sink = new LoopbackReplicationSink();
+        replicationManager.addSink(sink);
+        List<Entity> entities = spawnAll(1200);
+
+        for (int tick = 0; tick < 90; tick++) {
+            if (tick == 10) {
+                spawnAll(50);
+            } else if (tick == 20) {
+                for (int i = 0; i < 100; i++) {
+                    server.removeEntity(entities.get(i * 3));
+                }
+            } else if (tick == 30) {
+                // Physics added to transform-only entities and taken from others
+                for (int i = 200; i < 240; i++) {
+                    Entity entity = entities.get(i);
+                    if (entity.hasComponent(PhysicsComponent.class)) {
+                        entity.removeComponent(PhysicsComponent.class);
+                    } else {
+                        entity.addComponent(new PhysicsComponent(5, -5, 2));
+                    }
+                }
+            }
+            step();
+            drain(sink);
+            assertMirrored();
+        }
+    }
+
+    @Test
+    public void recycledIndexReplacesMirror() {
+        LoopbackReplicationSink sink = new LoopbackReplicationSink();
+        replicationManager.addSink(sink);
+        List<Entity> entities = spawnAll(1100);
+        step();
+        drain(sink);
+
+        // Enough removals that the oldest freed index is handed out again right away
+        Entity recycled = entities.get(0);
+        int oldHandle = recycled.getId();
+        Entity oldMirror = decoder.getMirror(oldHandle);
+        server.removeEntities(entities.subList(0, 1050));
+        server.update(0);
+        Entity replacement = spawn(false);
+        int newHandle = replacement.getId();
+        assertEquals(oldHandle & (EntityManager.MAX_ENTITIES - 1), newHandle & (EntityManager.MAX_ENTITIES - 1));
+        assertTrue(oldHandle != newHandle);
+
+        step();
+        drain(sink);
+        assertMirrored();
+        assertNull(decoder.getMirror(oldHandle));
+        assertTrue(decoder.getMirror(newHandle) != oldMirror);
+    }
+
+    @Test
+    public void channelResyncsWithKeyframeAfterDroppedFrames() throws IOException {
+        Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        ChannelReplicationSink sink = new ChannelReplicationSink(pipe.sink(), 16 * 1024);
+        replicationManager.addSink(sink);
+        replicationManager.setKeyframeInterval(0);
+        spawnAll(1000);
+        try {
+            for (int tick = 0; tick < 120; tick++) {
+                step();
+                // The observer stalls for a while, so the pipe and the sink's queue fill up
+                if (tick < 20 || tick >= 60) {
+                    drain(sink, pipe);
+                }
+                // The drain that ends the stall frees the queue; the keyframe follows a tick later
+                if (tick < 20 || tick > 60) {
+                    assertMirrored();
+                }
+            }
+            assertTrue("No frames were dropped", sink.getFramesDropped() > 0);
+            assertTrue("No keyframe after the drop", replicationManager.getKeyframeCount() > 1);
+        } finally {
+            sink.close();
+            pipe.source().close();
+        }
+    }
+}
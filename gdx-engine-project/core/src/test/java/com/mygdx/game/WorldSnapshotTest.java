@@ -0,0 +1,200 @@
+package com.mygdx.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorldSnapshotTest {
+    private Path basePath;
+    private Path deltaPath;
+
+    @Before
+    public void setUp() throws IOException {
+        basePath = Files.createTempFile("world", ".snapshot");
+        deltaPath = Files.createTempFile("world", ".delta");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(basePath);
+        Files.deleteIfExists(deltaPath);
+    }
+
+    // A mix of component sets and settings, moved for a few ticks so previous positions differ
+    private static EntityManager createWorld(boolean packed) {
+        EntityManager entityManager = new EntityManager(packed);
+        MovementManager movementManager = new MovementManager(entityManager);
+        movementManager.addMovementStrategy(new BasicMovementStrategy());
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            Entity entity = new Entity();
+            entity.addComponent(new TransformComponent(random.nextFloat() * 500, random.nextFloat() * 500, 4, 4));
+            if (i % 7 != 0) {
+                PhysicsComponent physics = new PhysicsComponent(i % 3 == 0 ? 0 : random.nextFloat(), random.nextFloat(), 1 + i % 4);
+                physics.setSleepAllowed(i % 11 != 0);
+                physics.setEnabled(i % 13 != 0);
+                entity.addComponent(physics);
+            }
+            if (i % 5 != 0) {
+                CollisionComponent collision = new CollisionComponent(i % 4, i % 9 == 0);
+                collision.setContinuous(i % 17 == 0);
+                collision.getBoundsOffset().set(i % 3, -1);
+                entity.addComponent(collision);
+            }
+            entity.setActive(i % 19 != 0);
+            entityManager.addEntity(entity);
+        }
+        entityManager.update(0);
+        for (int tick = 0; tick < 20; tick++) {
+            movementManager.updateMovement(1 / 30f);
+        }
+        return entityManager;
+    }
+
+    // Removals reorder the live world but not a snapshot, so entities are compared as sorted descriptions
+    private static void assertSameWorld(EntityManager expected, EntityManager actual) {
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    private static List<String> describe(EntityManager entityManager) {
+        List<String> descriptions = new ArrayList<>();
+        for (Entity entity : entityManager.getEntities()) {
+            StringBuilder line = new StringBuilder().append(entity.isActive());
+            TransformComponent transform = entity.getComponent(TransformComponent.class);
+            if (transform != null) {
+                line.append(" transform ").append(transform.isEnabled())
+                    .append(' ').append(transform.getPositionX()).append(' ').append(transform.getPositionY())
+                    .append(' ').append(transform.getPreviousPositionX()).append(' ').append(transform.getPreviousPositionY())
+                    .append(' ').append(transform.getWidth()).append(' ').append(transform.getHeight())
+                    .append(' ').append(transform.getRotation());
+            }
+            PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+            if (physics != null) {
+                line.append(" physics ").append(physics.isEnabled())
+                    .append(' ').append(physics.getVelocityX()).append(' ').append(physics.getVelocityY())
+                    .append(' ').append(physics.getMass()).append(' ').append(physics.isSleeping())
+                    .append(' ').append(physics.isSleepAllowed()).append(' ').append(physics.sleepTimer);
+            }
+            CollisionComponent collision = entity.getComponent(CollisionComponent.class);
+            if (collision != null) {
+                line.append(" collision ").append(collision.isEnabled())
+                    .append(' ').append(collision.getCollisionLayer()).append(' ').append(collision.isTrigger())
+                    .append(' ').append(collision.isContinuous())
+                    .append(' ').append(collision.getBoundsOffset().x).append(' ').append(collision.getBoundsOffset().y);
+            }
+            descriptions.add(line.toString());
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+
+    // Moves some entities, removes some and adds a few
+    private static void change(EntityManager entityManager) {
+        List<Entity> entities = entityManager.getEntities();
+        List<Entity> removed = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i++) {
+            if (i % 50 == 0) {
+                entities.get(i).getComponent(TransformComponent.class).translate(1, 1);
+            } else if (i % 150 == 3) {
+                removed.add(entities.get(i));
+            }
+        }
+        entityManager.removeEntities(removed);
+        for (int i = 0; i < 20; i++) {
+            Entity entity = new Entity();
+            entity.addComponent(new TransformComponent(i, i, 1, 1));
+            entityManager.addEntity(entity);
+        }
+        entityManager.update(0);
+    }
+
+    @Test
+    public void fullSnapshotRoundTrips() throws IOException {
+        for (boolean packed : new boolean[] {false, true}) {
+            EntityManager world = createWorld(packed);
+            WorldSnapshot.capture(world).write(basePath);
+
+            EntityManager restored = new EntityManager(packed);
+            WorldSnapshot.read(basePath).restore(restored, null);
+            assertSameWorld(world, restored);
+        }
+    }
+
+    @Test
+    public void deltaAppliesToBaseReadFromDisk() throws IOException {
+        for (boolean packed : new boolean[] {false, true}) {
+            EntityManager world = createWorld(packed);
+            WorldSnapshot base = WorldSnapshot.capture(world);
+            base.write(basePath);
+            change(world);
+            base.writeDelta(world, deltaPath);
+
+            EntityManager restored = new EntityManager(packed);
+            WorldSnapshot.read(basePath).applyDelta(deltaPath).restore(restored, null);
+            assertSameWorld(world, restored);
+        }
+    }
+
+    @Test
+    public void deltaAfterRestoreOnlyHoldsChanges() throws IOException {
+        for (boolean packed : new boolean[] {false, true}) {
+            WorldSnapshot.capture(createWorld(packed)).write(basePath);
+
+            // Load, play on, then autosave a delta against the loaded base
+            WorldSnapshot loaded = WorldSnapshot.read(basePath);
+            EntityManager world = new EntityManager(packed);
+            List<Entity> entities = loaded.restore(world, null);
+            for (int i = 0; i < 10; i++) {
+                entities.get(i * 100).getComponent(TransformComponent.class).translate(2, 0);
+            }
+            world.removeEntity(entities.get(5));
+            Entity added = new Entity();
+            added.addComponent(new TransformComponent(9, 9, 1, 1));
+            world.addEntity(added);
+            world.update(0);
+            assertEquals("Changed and added entities", 11, loaded.writeDelta(world, deltaPath));
+
+            EntityManager reloaded = new EntityManager(packed);
+            WorldSnapshot.read(basePath).applyDelta(deltaPath).restore(reloaded, null);
+            assertSameWorld(world, reloaded);
+        }
+    }
+
+    @Test
+    public void deltaRejectsOtherBase() throws IOException {
+        EntityManager world = createWorld(false);
+        WorldSnapshot base = WorldSnapshot.capture(world);
+        change(world);
+        base.writeDelta(world, deltaPath);
+        try {
+            WorldSnapshot.capture(world).applyDelta(deltaPath);
+            fail("Delta applied to a snapshot it wasn't taken against");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void truncatedFileFailsWithIOException() throws IOException {
+        WorldSnapshot.capture(createWorld(false)).write(basePath);
+        byte[] bytes = Files.readAllBytes(basePath);
+        Files.write(basePath, Arrays.copyOf(bytes, bytes.length / 2));
+        try {
+            WorldSnapshot.read(basePath);
+            fail("Truncated snapshot was read");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mygdx.game.headless;
+
+import com.mygdx.game.CollisionEvent;
+import com.mygdx.game.EventQueue;
+import com.mygdx.game.ReplayReader;
+import com.mygdx.game.ReplayRunner;
+import com.mygdx.game.ReplicationManager;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Runs the simulation without a window and prints tick timing and heap figures. With
+ * allocationBudget set, exits with status 1 when a measured tick allocates more than
+ * the budget, so CI can fail on hot-path allocation regressions. With replay set, plays
+ * a recorded log back instead and exits with status 1 if the state diverges from it.
+ */
+public class HeadlessLauncher {
+    public static void main(String[] args) throws Exception {
+        SceneConfig config = SceneConfig.fromArgs(args);
+        System.out.println("scene: " + config);
+
+        HeadlessSimulation simulation = new HeadlessSimulation(config);
+        if (!config.getReplay().isEmpty()) {
+            replay(config, simulation);
+            return;
+        }
+        SimulationReport report = simulation.run();
+        simulation.shutdown();
+
+        System.out.println("result: " + report);
+        ReplicationManager replication = simulation.getReplicationManager();
+        if (replication != null) {
+            System.out.println(String.format(Locale.ROOT,
+                "replication: %.1fB/tick, deltas %.1fB, %d keyframes averaging %.0fB, max frame %dB%s",
+                replication.getAverageBytesPerTick(), replication.getAverageDeltaBytes(), replication.getKeyframeCount(),
+                replication.getKeyframeCount() == 0 ? 0.0 : (double) replication.getKeyframeBytes() / replication.getKeyframeCount(),
+                replication.getMaxFrameBytes(),
+                simulation.getMirrorDecoder() == null ? ""
+                    : ", mirror at tick " + simulation.getMirrorDecoder().getTick()));
+        }
+        EventQueue<CollisionEvent> events = simulation.getCollisionEvents();
+        if (events != null) {
+            // Totals include the warmup ticks
+            System.out.println("events: " + events.getDispatchedCount() + " dispatched (" + simulation.getContactsEntered()
+                + " enters, " + simulation.getContactsExited() + " exits), " + events.getDroppedCount()
+                + " dropped, largest batch " + events.getPeakSize() + " of " + events.getCapacity());
+        }
+        if (config.getAllocationBudget() >= 0 && !checkAllocationBudget(config, report)) {
+            System.exit(1);
+        }
+    }
+
+    private static void replay(SceneConfig config, HeadlessSimulation simulation) throws Exception {
+        ReplayRunner.Result result;
+        try (ReplayReader reader = new ReplayReader(Paths.get(config.getReplay()))) {
+            System.out.println("recorded: " + reader.getInfo());
+            result = simulation.replay(reader);
+        }
+        simulation.shutdown();
+
+        System.out.println("replay: " + result);
+        if (!result.isDeterministic()) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean checkAllocationBudget(SceneConfig config, SimulationReport report) {
+        if (!report.isAllocationsMeasured()) {
+            System.err.println("allocation gate: this JVM has no per-thread allocation counter, skipping");
+            return true;
+        }
+        if (config.isParallel()) {
+            System.err.println("allocation gate: parallel=true, allocations on pool threads are not counted");
+        }
+        if (report.getMaxTickAllocatedBytes() > config.getAllocationBudget()) {
+            System.err.println("allocation gate FAILED: measured tick " + report.getWorstAllocationTick()
+                + " allocated " + report.getMaxTickAllocatedBytes() + " bytes, budget is " + config.getAllocationBudget());
+            return false;
+        }
+        System.out.println("allocation gate passed: max " + report.getMaxTickAllocatedBytes()
+            + " bytes per tick, budget " + config.getAllocationBudget());
+        return true;
+    }
+}
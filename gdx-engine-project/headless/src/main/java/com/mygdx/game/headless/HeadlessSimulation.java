@@ -0,0 +1,286 @@
+package com.mygdx.game.headless;
+
+import com.mygdx.game.AllocationTracker;
+import com.mygdx.game.ChannelReplicationSink;
+import com.mygdx.game.CollisionComponent;
+import com.mygdx.game.CollisionManager;
+import com.mygdx.game.CollisionEvent;
+import com.mygdx.game.Entity;
+import com.mygdx.game.EntityManager;
+import com.mygdx.game.EventBus;
+import com.mygdx.game.EventQueue;
+import com.mygdx.game.EventSubscriber;
+import com.mygdx.game.FrameProfiler;
+import com.mygdx.game.InputSnapshot;
+import com.mygdx.game.LoopbackReplicationSink;
+import com.mygdx.game.MovementManager;
+import com.mygdx.game.PhysicsComponent;
+import com.mygdx.game.ReplicationDecoder;
+import com.mygdx.game.ReplicationManager;
+import com.mygdx.game.ReplayInputManager;
+import com.mygdx.game.ReplayReader;
+import com.mygdx.game.ReplayRecorder;
+import com.mygdx.game.ReplayRunner;
+import com.mygdx.game.StateChecksum;
+import com.mygdx.game.SystemScheduler;
+import com.mygdx.game.TransformComponent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Steps the entity, movement and collision managers at a fixed delta with no
+ * ApplicationAdapter, so the simulation can be soak-tested without a window.
+ */
+public class HeadlessSimulation {
+    private final SceneConfig config;
+    private final EntityManager entityManager;
+    private final MovementManager movementManager;
+    private final CollisionManager collisionManager;
+    private final SystemScheduler scheduler;
+
+    // Set when replicate= is on: loopback decodes into a mirror, a port serves TCP observers
+    private ReplicationManager replicationManager;
+    private LoopbackReplicationSink loopback;
+    private ReplicationDecoder mirrorDecoder;
+    private ServerSocketChannel observerServer;
+    private final List<ChannelReplicationSink> observers = new ArrayList<>();
+
+    // Set when events=true: collision events are counted by a subscriber after the collision stage
+    private EventBus eventBus;
+    private EventQueue<CollisionEvent> collisionEvents;
+    private final ContactCounter contactCounter = new ContactCounter();
+
+    public HeadlessSimulation(SceneConfig config) throws IOException {
+        this.config = config;
+        entityManager = new EntityManager(config.isPacked());
+        movementManager = new MovementManager(entityManager);
+        movementManager.addMovementStrategy(new WrappingMovementStrategy(config.getWorldWidth(), config.getWorldHeight()));
+        movementManager.setParallel(config.isParallel());
+        movementManager.setSleepEnabled(config.isSleep());
+        collisionManager = new CollisionManager(config.getBroadPhase(), config.getCellSize());
+        collisionManager.setParallelNarrowPhase(config.isParallel());
+
+        scheduler = new SystemScheduler();
+        scheduler.register(entityManager);
+        scheduler.register(movementManager);
+        scheduler.register(collisionManager);
+        populate();
+        if (config.isEvents()) {
+            eventBus = new EventBus();
+            collisionEvents = eventBus.register(CollisionEvent.class, CollisionEvent::new);
+            collisionEvents.subscribe(contactCounter);
+            collisionManager.setCollisionEvents(collisionEvents);
+            scheduler.register(eventBus);
+        }
+        if (!config.getReplicate().isEmpty()) {
+            setUpReplication();
+        }
+
+        if (!config.getProfile().isEmpty()) {
+            // One dump row per manager for every simulated second
+            FrameProfiler profiler = new FrameProfiler();
+            FrameProfiler.DumpFormat format = config.getProfile().toLowerCase(Locale.ROOT).endsWith(".json")
+                ? FrameProfiler.DumpFormat.JSON : FrameProfiler.DumpFormat.CSV;
+            profiler.setPeriodicDump(Paths.get(config.getProfile()), format, Math.max(1, Math.round(config.getTickRate())));
+            scheduler.setProfiler(profiler);
+        }
+    }
+
+    private void populate() {
+        Random random = new Random(config.getSeed());
+        float size = config.getEntitySize();
+        for (int i = 0; i < config.getEntities(); i++) {
+            boolean isStatic = random.nextFloat() < config.getStaticFraction();
+            float velocityX = isStatic ? 0 : config.getVelocity().sample(random, config.getSpeed());
+            float velocityY = isStatic ? 0 : config.getVelocity().sample(random, config.getSpeed());
+
+            Entity entity = new Entity();
+            entity.addComponent(new TransformComponent(
+                random.nextFloat() * config.getWorldWidth(), random.nextFloat() * config.getWorldHeight(), size, size));
+            entity.addComponent(new PhysicsComponent(velocityX, velocityY, 1));
+            entity.addComponent(new CollisionComponent(1, false));
+            entityManager.addEntity(entity);
+            collisionManager.addCollisionComponent(entity.getComponent(CollisionComponent.class));
+        }
+        // Commit the additions so the first measured tick doesn't pay for them
+        entityManager.update(0);
+    }
+
+    private void setUpReplication() throws IOException {
+        replicationManager = new ReplicationManager(entityManager);
+        scheduler.register(replicationManager);
+        if (config.getReplicate().equals("loopback")) {
+            loopback = new LoopbackReplicationSink();
+            replicationManager.addSink(loopback);
+            mirrorDecoder = new ReplicationDecoder(new EntityManager());
+        } else {
+            observerServer = ServerSocketChannel.open();
+            observerServer.bind(new InetSocketAddress(Integer.parseInt(config.getReplicate())));
+            observerServer.configureBlocking(false);
+        }
+    }
+
+    // Between ticks: takes new observers and decodes the loopback stream, outside the timed section
+    private void serviceReplication() throws IOException {
+        if (observerServer != null) {
+            SocketChannel observer;
+            while ((observer = observerServer.accept()) != null) {
+                ChannelReplicationSink sink = new ChannelReplicationSink(observer);
+                observers.add(sink);
+                replicationManager.addSink(sink);
+            }
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                ChannelReplicationSink sink = observers.get(i);
+                sink.flush();
+                if (!sink.isOpen()) {
+                    replicationManager.removeSink(sink);
+                    observers.remove(i);
+                }
+            }
+        }
+        if (loopback != null) {
+            ByteBuffer frame;
+            while ((frame = loopback.poll()) != null) {
+                mirrorDecoder.apply(frame);
+            }
+        }
+    }
+
+    public SimulationReport run() throws IOException {
+        if (config.getRecord().isEmpty()) {
+            return run(null);
+        }
+        try (ReplayRecorder recorder = new ReplayRecorder(Paths.get(config.getRecord()), config.toString())) {
+            return run(recorder);
+        }
+    }
+
+    // With a recorder, every tick including warmup is logged with its checksum, outside the timed section
+    private SimulationReport run(ReplayRecorder recorder) throws IOException {
+        float deltaTime = 1f / config.getTickRate();
+        // The scene has no input; the log still carries the deltas and checksums
+        InputSnapshot noInput = new InputSnapshot();
+        for (int i = 0; i < config.getWarmupTicks(); i++) {
+            serviceReplication();
+            scheduler.tick(deltaTime);
+            if (recorder != null) recorder.record(deltaTime, noInput, StateChecksum.compute(entityManager));
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        AllocationTracker allocations = new AllocationTracker();
+        allocations.startGcMonitoring();
+        long[] tickNanos = new long[config.getTicks()];
+        long[] tickBytes = new long[config.getTicks()];
+        if (scheduler.getProfiler() != null) {
+            scheduler.getProfiler().setAllocationTracker(allocations);
+            scheduler.getProfiler().setEnabled(true);
+        }
+        long peakHeap = 0;
+        long contactSum = 0;
+        long sleepingSum = 0;
+
+        // Stages with a single manager run on this thread, so with parallel=false every
+        // allocation of the tick is counted
+        long start = System.nanoTime();
+        for (int i = 0; i < tickNanos.length; i++) {
+            serviceReplication();
+            long tickStartBytes = allocations.getAllocatedBytes();
+            long tickStart = System.nanoTime();
+            scheduler.tick(deltaTime);
+            tickNanos[i] = System.nanoTime() - tickStart;
+            tickBytes[i] = allocations.allocatedSince(tickStartBytes);
+            if (recorder != null) recorder.record(deltaTime, noInput, StateChecksum.compute(entityManager));
+
+            contactSum += collisionManager.getContactCount();
+            sleepingSum += movementManager.getSleepingCount();
+            long heap = runtime.totalMemory() - runtime.freeMemory();
+            if (heap > peakHeap) peakHeap = heap;
+        }
+        long elapsed = System.nanoTime() - start;
+        allocations.stopGcMonitoring();
+        serviceReplication();
+
+        return new SimulationReport(tickNanos, tickBytes, allocations.isSupported(), elapsed, peakHeap,
+            runtime.totalMemory() - runtime.freeMemory(), allocations.getGcPauses(), allocations.getGcPauseMillis(),
+            allocations.getMaxGcPauseMillis(), (double) contactSum / tickNanos.length,
+            (double) sleepingSum / tickNanos.length);
+    }
+
+    // Plays a log recorded from the same scene settings back through this simulation
+    public ReplayRunner.Result replay(ReplayReader reader) throws IOException {
+        ReplayRunner runner = new ReplayRunner(scheduler, new ReplayInputManager(), entityManager);
+        runner.setSpeed(config.getReplaySpeed());
+        return runner.run(reader);
+    }
+
+    public void shutdown() {
+        entityManager.shutdown();
+        movementManager.shutdown();
+        collisionManager.shutdown();
+        if (replicationManager != null) replicationManager.shutdown();
+        if (eventBus != null) eventBus.shutdown();
+        for (ChannelReplicationSink observer : observers) {
+            observer.close();
+        }
+        if (observerServer != null) {
+            try {
+                observerServer.close();
+            } catch (IOException e) {
+                System.err.println("Closing the observer socket failed: " + e);
+            }
+        }
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public CollisionManager getCollisionManager() {
+        return collisionManager;
+    }
+
+    // Null unless replicate= is set
+    public ReplicationManager getReplicationManager() {
+        return replicationManager;
+    }
+
+    // Null unless replicate=loopback
+    public ReplicationDecoder getMirrorDecoder() {
+        return mirrorDecoder;
+    }
+
+    // Null unless events=true
+    public EventQueue<CollisionEvent> getCollisionEvents() {
+        return collisionEvents;
+    }
+
+    public long getContactsEntered() {
+        return contactCounter.entered;
+    }
+
+    public long getContactsExited() {
+        return contactCounter.exited;
+    }
+
+    private static class ContactCounter implements EventSubscriber<CollisionEvent> {
+        long entered;
+        long exited;
+
+        @Override
+        public void onEvent(CollisionEvent event) {
+            if (event.getKind() == CollisionEvent.Kind.ENTER) {
+                entered++;
+            } else if (event.getKind() == CollisionEvent.Kind.EXIT) {
+                exited++;
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.mygdx.game.headless;
+
+import com.mygdx.game.BroadPhaseMode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Scene and run settings for the headless runner. Settings come from key=value arguments
+ * and optional .properties files; later arguments override earlier ones.
+ */
+public class SceneConfig {
+    private int entities = 10000;
+    private float worldWidth = 4000;
+    private float worldHeight = 4000;
+    private float entitySize = 16;
+    private VelocityDistribution velocity = VelocityDistribution.UNIFORM;
+    private float speed = 60;
+    private float staticFraction = 0;
+    // Let slow bodies sleep, so resting pairs skip collision
+    private boolean sleep = false;
+    private int ticks = 1800;
+    private int warmupTicks = 300;
+    private float tickRate = 30;
+    private BroadPhaseMode broadPhase = BroadPhaseMode.SPATIAL_HASH;
+    private float cellSize = 64;
+    private boolean packed = false;
+    private boolean parallel = false;
+    private long seed = 1;
+    // Profiler dump file, CSV unless it ends in .json; empty leaves the profiler off
+    private String profile = "";
+    // Largest allocation in bytes one measured tick may make before the run fails; -1 disables the gate
+    private long allocationBudget = -1;
+    // Replay log to write while running, or to play back instead of running; empty for neither
+    private String record = "";
+    private String replay = "";
+    // Replay pace as a multiple of real time; 0 plays back as fast as possible
+    private float replaySpeed = 0;
+    // "loopback" decodes the replication stream in-process, a port number serves it over TCP; empty is off
+    private String replicate = "";
+    // Publish collision enters and exits to an EventBus that runs after collision
+    private boolean events = false;
+
+    public static SceneConfig fromArgs(String[] args) throws IOException {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split > 0) {
+                properties.setProperty(arg.substring(0, split).trim(), arg.substring(split + 1).trim());
+            } else {
+                try (InputStream in = Files.newInputStream(Paths.get(arg))) {
+                    properties.load(in);
+                }
+            }
+        }
+        return new SceneConfig().apply(properties);
+    }
+
+    public SceneConfig apply(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            set(key, properties.getProperty(key));
+        }
+        return this;
+    }
+
+    public SceneConfig set(String key, String value) {
+        switch (key) {
+            case "entities": entities = Integer.parseInt(value); break;
+            case "world": {
+                // "4000" for a square world, "4000x3000" otherwise
+                int split = value.toLowerCase(Locale.ROOT).indexOf('x');
+                worldWidth = Float.parseFloat(split < 0 ? value : value.substring(0, split));
+                worldHeight = split < 0 ? worldWidth : Float.parseFloat(value.substring(split + 1));
+                break;
+            }
+            case "size": entitySize = Float.parseFloat(value); break;
+            case "velocity": velocity = VelocityDistribution.valueOf(value.toUpperCase(Locale.ROOT)); break;
+            case "speed": speed = Float.parseFloat(value); break;
+            case "static": staticFraction = Float.parseFloat(value); break;
+            case "sleep": sleep = Boolean.parseBoolean(value); break;
+            case "ticks": ticks = Integer.parseInt(value); break;
+            case "warmup": warmupTicks = Integer.parseInt(value); break;
+            case "tickRate": tickRate = Float.parseFloat(value); break;
+            case "broadPhase": broadPhase = BroadPhaseMode.valueOf(value.toUpperCase(Locale.ROOT)); break;
+            case "cellSize": cellSize = Float.parseFloat(value); break;
+            case "packed": packed = Boolean.parseBoolean(value); break;
+            case "parallel": parallel = Boolean.parseBoolean(value); break;
+            case "seed": seed = Long.parseLong(value); break;
+            case "profile": profile = value; break;
+            case "allocationBudget": allocationBudget = Long.parseLong(value); break;
+            case "record": record = value; break;
+            case "replay": replay = value; break;
+            case "replaySpeed": replaySpeed = Float.parseFloat(value); break;
+            case "replicate": replicate = value; break;
+            case "events": events = Boolean.parseBoolean(value); break;
+            default:
+                throw new IllegalArgumentException("Unknown scene setting: " + key);
+        }
+        validate();
+        return this;
+    }
+
+    private void validate() {
+        if (entities < 0 || ticks <= 0 || warmupTicks < 0) {
+            throw new IllegalArgumentException("entities, ticks and warmup must not be negative, ticks must be positive");
+        }
+        if (worldWidth <= 0 || worldHeight <= 0 || entitySize <= 0 || tickRate <= 0 || cellSize <= 0) {
+            throw new IllegalArgumentException("world, size, tickRate and cellSize must be positive");
+        }
+        if (staticFraction < 0 || staticFraction > 1) {
+            throw new IllegalArgumentException("static must be between 0 and 1");
+        }
+        if (replaySpeed < 0) {
+            throw new IllegalArgumentException("replaySpeed must not be negative");
+        }
+        if (!replicate.isEmpty() && !replicate.equals("loopback") && !replicate.matches("\\d{1,5}")) {
+            throw new IllegalArgumentException("replicate must be loopback or a port number");
+        }
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    public float getWorldWidth() {
+        return worldWidth;
+    }
+
+    public float getWorldHeight() {
+        return worldHeight;
+    }
+
+    public float getEntitySize() {
+        return entitySize;
+    }
+
+    public VelocityDistribution getVelocity() {
+        return velocity;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public float getStaticFraction() {
+        return staticFraction;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getWarmupTicks() {
+        return warmupTicks;
+    }
+
+    public float getTickRate() {
+        return tickRate;
+    }
+
+    public BroadPhaseMode getBroadPhase() {
+        return broadPhase;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public boolean isPacked() {
+        return packed;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public long getAllocationBudget() {
+        return allocationBudget;
+    }
+
+    public boolean isSleep() {
+        return sleep;
+    }
+
+    public String getRecord() {
+        return record;
+    }
+
+    public String getReplay() {
+        return replay;
+    }
+
+    public float getReplaySpeed() {
+        return replaySpeed;
+    }
+
+    public String getReplicate() {
+        return replicate;
+    }
+
+    public boolean isEvents() {
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "entities=%d world=%.0fx%.0f size=%.1f velocity=%s speed=%.1f static=%.2f sleep=%b ticks=%d warmup=%d tickRate=%.1f "
+                + "broadPhase=%s cellSize=%.1f packed=%b parallel=%b seed=%d profile=%s allocationBudget=%d"
+                + " record=%s replay=%s replaySpeed=%.1f replicate=%s events=%b",
+            entities, worldWidth, worldHeight, entitySize, velocity, speed, staticFraction, sleep, ticks, warmupTicks, tickRate,
+            broadPhase, cellSize, packed, parallel, seed, profile, allocationBudget, record, replay, replaySpeed, replicate, events);
+    }
+}
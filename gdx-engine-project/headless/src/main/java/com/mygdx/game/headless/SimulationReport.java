@@ -0,0 +1,129 @@
+package com.mygdx.game.headless;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/** Tick timing, allocation and memory figures from one measured headless run. */
+public class SimulationReport {
+    private final long[] sortedTickNanos;
+    private final long elapsedNanos;
+    private final boolean allocationsMeasured;
+    private final long totalAllocatedBytes;
+    private final long maxTickAllocatedBytes;
+    private final int worstAllocationTick;
+    private final long peakHeapBytes;
+    private final long finalHeapBytes;
+    private final long gcPauses;
+    private final long gcPauseMillis;
+    private final long maxGcPauseMillis;
+    private final double averageContacts;
+    private final double averageSleeping;
+
+    SimulationReport(long[] tickNanos, long[] tickBytes, boolean allocationsMeasured, long elapsedNanos,
+                     long peakHeapBytes, long finalHeapBytes, long gcPauses, long gcPauseMillis,
+                     long maxGcPauseMillis, double averageContacts, double averageSleeping) {
+        this.sortedTickNanos = tickNanos.clone();
+        Arrays.sort(sortedTickNanos);
+        this.elapsedNanos = elapsedNanos;
+        this.allocationsMeasured = allocationsMeasured;
+
+        long total = 0;
+        long max = 0;
+        int worst = -1;
+        for (int i = 0; i < tickBytes.length; i++) {
+            total += tickBytes[i];
+            if (tickBytes[i] > max) {
+                max = tickBytes[i];
+                worst = i;
+            }
+        }
+        this.totalAllocatedBytes = total;
+        this.maxTickAllocatedBytes = max;
+        this.worstAllocationTick = worst;
+
+        this.peakHeapBytes = peakHeapBytes;
+        this.finalHeapBytes = finalHeapBytes;
+        this.gcPauses = gcPauses;
+        this.gcPauseMillis = gcPauseMillis;
+        this.maxGcPauseMillis = maxGcPauseMillis;
+        this.averageContacts = averageContacts;
+        this.averageSleeping = averageSleeping;
+    }
+
+    public int getTicks() {
+        return sortedTickNanos.length;
+    }
+
+    public double getTicksPerSecond() {
+        return sortedTickNanos.length / (elapsedNanos / 1e9);
+    }
+
+    // Nearest-rank percentile, p in [0, 1]
+    public long getPercentileNanos(double p) {
+        int rank = (int) Math.ceil(p * sortedTickNanos.length) - 1;
+        return sortedTickNanos[Math.max(0, Math.min(rank, sortedTickNanos.length - 1))];
+    }
+
+    public long getMaxNanos() {
+        return sortedTickNanos[sortedTickNanos.length - 1];
+    }
+
+    // False when the JVM has no per-thread allocation counter; the byte figures are then 0
+    public boolean isAllocationsMeasured() {
+        return allocationsMeasured;
+    }
+
+    public long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    public long getMaxTickAllocatedBytes() {
+        return maxTickAllocatedBytes;
+    }
+
+    // Index among the measured ticks, or -1 if no tick allocated
+    public int getWorstAllocationTick() {
+        return worstAllocationTick;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public long getFinalHeapBytes() {
+        return finalHeapBytes;
+    }
+
+    public long getGcPauses() {
+        return gcPauses;
+    }
+
+    public long getGcPauseMillis() {
+        return gcPauseMillis;
+    }
+
+    public long getMaxGcPauseMillis() {
+        return maxGcPauseMillis;
+    }
+
+    public double getAverageContacts() {
+        return averageContacts;
+    }
+
+    public double getAverageSleeping() {
+        return averageSleeping;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "ticks=%d ticks/s=%.1f p50=%.3fms p99=%.3fms max=%.3fms alloc/tick=%s maxAlloc=%s "
+                + "heapPeak=%.1fMB heapFinal=%.1fMB gcPauses=%d (%dms, max %dms) contacts/tick=%.1f sleeping/tick=%.1f",
+            getTicks(), getTicksPerSecond(),
+            getPercentileNanos(0.50) / 1e6, getPercentileNanos(0.99) / 1e6, getMaxNanos() / 1e6,
+            allocationsMeasured ? Long.toString(totalAllocatedBytes / getTicks()) + "B" : "n/a",
+            allocationsMeasured ? Long.toString(maxTickAllocatedBytes) + "B" : "n/a",
+            peakHeapBytes / (1024.0 * 1024.0), finalHeapBytes / (1024.0 * 1024.0),
+            gcPauses, gcPauseMillis, maxGcPauseMillis, averageContacts, averageSleeping);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mygdx.game.headless;
+
+import java.util.Random;
+
+/** How initial entity velocities are drawn; each axis is sampled independently. */
+public enum VelocityDistribution {
+    STATIC,
+    UNIFORM,
+    GAUSSIAN;
+
+    float sample(Random random, float speed) {
+        switch (this) {
+            case UNIFORM:
+                return (random.nextFloat() * 2 - 1) * speed;
+            case GAUSSIAN:
+                return (float) random.nextGaussian() * speed;
+            default:
+                return 0;
+        }
+    }
+}
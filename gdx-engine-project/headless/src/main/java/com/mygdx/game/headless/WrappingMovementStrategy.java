@@ -0,0 +1,34 @@
+package com.mygdx.game.headless;
+
+import com.mygdx.game.MovementStrategy;
+import com.mygdx.game.PhysicsComponent;
+import com.mygdx.game.TransformComponent;
+
+/** Integrates velocity and wraps positions at the world edges, so density stays constant over long runs. */
+public class WrappingMovementStrategy implements MovementStrategy {
+    private final float worldWidth;
+    private final float worldHeight;
+
+    public WrappingMovementStrategy(float worldWidth, float worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    @Override
+    public void applyMovement(TransformComponent transform, PhysicsComponent physics, float deltaTime) {
+        float x = transform.getPositionX() + physics.getVelocityX() * deltaTime;
+        float y = transform.getPositionY() + physics.getVelocityY() * deltaTime;
+        transform.setPosition(wrap(x, worldWidth), wrap(y, worldHeight));
+    }
+
+    @Override
+    public boolean isParallelSafe() {
+        return true;
+    }
+
+    private static float wrap(float value, float size) {
+        if (value < 0) return value + size;
+        if (value >= size) return value - size;
+        return value;
+    }
+}